@@ -0,0 +1,289 @@
+package io.neverending25.api.cache;
+
+import jakarta.annotation.PostConstruct;
+import io.neverending25.api.dto.FloorPlan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ParseCache {
+    private final ObjectMapper objectMapper;
+
+    @Value("${parser.cache.max-entries:1000}")
+    private int maxEntries;
+    @Value("${parser.cache.dir:}")
+    private String cacheDir;
+    @Value("${parser.cache.disk-max-size:512MB}")
+    private DataSize diskMaxSize;
+    @Value("${parser.cache.near-duplicate-distance:-1}")
+    private int nearDuplicateDistance;
+    @Value("${parser.cache.near-duplicate-aspect-tolerance:0.02}")
+    private double aspectTolerance;
+
+    private LruCache<String, FloorPlan> memory;
+    private Path diskDir;
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+    private final AtomicLong nearDuplicateHits = new AtomicLong();
+    private Map<String, Fingerprint> fingerprints;
+    private final SingleFlight<String, FloorPlan> inFlight = new SingleFlight<>();
+
+    @PostConstruct
+    void init() throws IOException {
+        memory = new LruCache<>(maxEntries);
+        fingerprints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fingerprint> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        if (!cacheDir.isBlank()) {
+            diskDir = Files.createDirectories(Path.of(cacheDir));
+            try (Stream<Path> files = Files.list(diskDir)) {
+                diskBytes.set(files.filter(ParseCache::isEntry).mapToLong(ParseCache::sizeOf).sum());
+            }
+            if (diskBytes.get() > diskMaxSize.toBytes()) {
+                trimDisk();
+            }
+        }
+    }
+
+    public String keyOf(String imageBase64) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(imageBase64);
+        } catch (IllegalArgumentException e) {
+            bytes = imageBase64.getBytes(StandardCharsets.UTF_8);
+        }
+        return keyOf(bytes);
+    }
+
+    public String keyOf(byte[] imageBytes) {
+        return HexFormat.of().formatHex(newDigest().digest(imageBytes));
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public FloorPlan get(String key, Supplier<FloorPlan> loader) {
+        FloorPlan cached = cached(key);
+        if (cached != null) {
+            return cached.copy();
+        }
+
+        FloorPlan plan = inFlight.execute(key, () -> {
+            FloorPlan again = memory.peek(key);
+            if (again != null) {
+                return again;
+            }
+            FloorPlan parsed = loader.get();
+            if (parsed != null) {
+                memory.put(key, parsed);
+                writeToDisk(key, parsed);
+            }
+            return parsed;
+        });
+        return plan == null ? null : plan.copy();
+    }
+
+    private FloorPlan cached(String key) {
+        FloorPlan cached = memory.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        cached = readFromDisk(key);
+        if (cached != null) {
+            diskHits.incrementAndGet();
+            memory.put(key, cached);
+        }
+        return cached;
+    }
+
+    public FloorPlan similar(long hash, int width, int height) {
+        if (nearDuplicateDistance < 0) {
+            return null;
+        }
+        Fingerprint best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        synchronized (fingerprints) {
+            for (Fingerprint candidate : fingerprints.values()) {
+                int distance = Long.bitCount(candidate.hash() ^ hash);
+                if (distance <= nearDuplicateDistance && distance < bestDistance
+                        && sameAspect(candidate, width, height)) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        nearDuplicateHits.incrementAndGet();
+        if (best.width() == width && best.height() == height) {
+            return best.plan().copy();
+        }
+        return best.plan().scaled((double) width / best.width(), (double) height / best.height());
+    }
+
+    public void index(String key, long hash, int width, int height, FloorPlan plan) {
+        if (nearDuplicateDistance < 0) {
+            return;
+        }
+        synchronized (fingerprints) {
+            fingerprints.put(key, new Fingerprint(hash, width, height, plan));
+        }
+    }
+
+    private boolean sameAspect(Fingerprint candidate, int width, int height) {
+        double expected = (double) candidate.width() / candidate.height();
+        double actual = (double) width / height;
+        return Math.abs(actual - expected) <= aspectTolerance * expected;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", memory.size());
+        stats.put("hits", memory.hits());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", memory.misses() - diskHits.get());
+        stats.put("evictions", memory.evictions());
+        stats.put("diskBytes", diskBytes.get());
+        stats.put("diskEvictions", diskEvictions.get());
+        stats.put("coalesced", inFlight.coalesced());
+        stats.put("nearDuplicateHits", nearDuplicateHits.get());
+        return stats;
+    }
+
+    private FloorPlan readFromDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        Path file = diskDir.resolve(key + ".json");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream is = Files.newInputStream(file)) {
+            FloorPlan plan = objectMapper.readValue(is, FloorPlan.class);
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return plan;
+        } catch (Exception e) {
+            log.warn("Dropping unreadable parse cache entry {}", file, e);
+            delete(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, FloorPlan parsed) {
+        if (diskDir == null) {
+            return;
+        }
+        try {
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                objectMapper.writeValue(os, parsed);
+            }
+            Path file = diskDir.resolve(key + ".json");
+            long replaced = sizeOf(file);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(sizeOf(file) - replaced) > diskMaxSize.toBytes()) {
+                trimDisk();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to persist parse cache entry {}", key, e);
+        }
+    }
+
+    private synchronized void trimDisk() {
+        long target = diskMaxSize.toBytes() * 9 / 10;
+        if (diskBytes.get() <= diskMaxSize.toBytes()) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(diskDir)) {
+            entries = files.filter(ParseCache::isEntry)
+                    .sorted(Comparator.comparing(ParseCache::lastModified))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list parse cache directory {}", diskDir, e);
+            return;
+        }
+        for (Path file : entries) {
+            if (diskBytes.get() <= target) {
+                break;
+            }
+            if (delete(file)) {
+                diskEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean delete(Path file) {
+        long size = sizeOf(file);
+        try {
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+                return true;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete parse cache entry {}", file, e);
+        }
+        return false;
+    }
+
+    private static boolean isEntry(Path file) {
+        return file.getFileName().toString().endsWith(".json");
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private record Fingerprint(long hash, int width, int height, FloorPlan plan) {
+    }
+}
@@ -0,0 +1,116 @@
+package io.neverending25.api.cache;
+
+import io.neverending25.api.dto.FloorPlan;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+@Component
+public class PlanCanonicalizer {
+
+    public String hash(FloorPlan plan, String salt) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append('{');
+        if (!Double.isNaN(plan.getArea())) {
+            canonical.append("\"area\":").append(normalize(plan.getArea())).append(',');
+        }
+        canonical.append("\"doors\":");
+        writeShapes(plan.getDoors(), "bbox", 4, true, canonical);
+        if (plan.getLoadBearingWalls() != null) {
+            canonical.append(",\"load_bearing_walls\":");
+            writeShapes(plan.getLoadBearingWalls(), "position", 2, false, canonical);
+        }
+        if (!Double.isNaN(plan.getPerimeter())) {
+            canonical.append(",\"perimeter\":").append(normalize(plan.getPerimeter()));
+        }
+        canonical.append(",\"rooms\":");
+        writeRooms(plan, canonical);
+        canonical.append(",\"walls\":");
+        writeShapes(plan.getWalls(), "position", 2, true, canonical);
+        canonical.append('}');
+
+        canonical.append('\n').append(salt);
+        return HexFormat.of().formatHex(
+                ParseCache.newDigest().digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void writeShapes(int[] coordinates, String key, int points, boolean unordered, StringBuilder out) {
+        int stride = points * 2;
+        String[] elements = new String[coordinates.length / stride];
+        StringBuilder element = new StringBuilder();
+        for (int i = 0; i < elements.length; i++) {
+            element.setLength(0);
+            element.append('{');
+            writeString(key, element);
+            element.append(":[");
+            for (int p = 0; p < points; p++) {
+                int offset = i * stride + p * 2;
+                if (p > 0) {
+                    element.append(',');
+                }
+                element.append('[').append(coordinates[offset]).append(',').append(coordinates[offset + 1]).append(']');
+            }
+            element.append("]}");
+            elements[i] = element.toString();
+        }
+        writeArray(elements, unordered, out);
+    }
+
+    private static void writeRooms(FloorPlan plan, StringBuilder out) {
+        int[] offsets = plan.getRoomOffsets();
+        String[] elements = new String[Math.max(0, offsets.length - 1)];
+        StringBuilder room = new StringBuilder();
+        for (int r = 0; r < elements.length; r++) {
+            room.setLength(0);
+            room.append('[');
+            for (int p = offsets[r]; p < offsets[r + 1]; p++) {
+                if (p > offsets[r]) {
+                    room.append(',');
+                }
+                room.append("{\"id\":");
+                writeString(plan.getRoomIds()[p], room);
+                room.append(",\"x\":").append(plan.getRoomXs()[p]);
+                room.append(",\"y\":").append(plan.getRoomYs()[p]).append('}');
+            }
+            room.append(']');
+            elements[r] = room.toString();
+        }
+        writeArray(elements, true, out);
+    }
+
+    private static void writeArray(String[] elements, boolean unordered, StringBuilder out) {
+        if (unordered) {
+            Arrays.sort(elements);
+        }
+        out.append('[').append(String.join(",", elements)).append(']');
+    }
+
+    private static void writeString(String value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static String normalize(double value) {
+        if (!Double.isFinite(value)) {
+            return Double.toString(value);
+        }
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            return Long.toString((long) value);
+        }
+        return new BigDecimal(Double.toString(value)).stripTrailingZeros().toPlainString();
+    }
+}
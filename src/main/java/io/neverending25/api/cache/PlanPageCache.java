@@ -0,0 +1,76 @@
+package io.neverending25.api.cache;
+
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class PlanPageCache {
+    private final ObjectMapper objectMapper;
+
+    @Value("${plan.cache.max-entries:100}")
+    private int maxEntries;
+    @Value("${plan.cache.ttl:5s}")
+    private Duration ttl;
+
+    private LruCache<String, Page> entries;
+    private final SingleFlight<String, Page> inFlight = new SingleFlight<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        entries = new LruCache<>(maxEntries, ttl);
+    }
+
+    public Page get(int page, int size, Supplier<PageResponse<PlanResponse>> loader) {
+        String key = page + ":" + size;
+        Page cached = entries.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        return inFlight.execute(key, () -> {
+            long loadedAt = generation.get();
+            PageResponse<PlanResponse> content = loader.get();
+            Page loaded = new Page(content, etag(content));
+            if (generation.get() == loadedAt) {
+                entries.put(key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", entries.hits());
+        stats.put("misses", entries.misses());
+        stats.put("expirations", entries.expirations());
+        stats.put("coalesced", inFlight.coalesced());
+        return stats;
+    }
+
+    private String etag(PageResponse<PlanResponse> content) {
+        byte[] digest = ParseCache.newDigest().digest(objectMapper.writeValueAsBytes(content));
+        return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    }
+
+    public record Page(PageResponse<PlanResponse> content, String etag) {
+    }
+}
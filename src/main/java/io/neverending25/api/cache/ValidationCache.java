@@ -0,0 +1,57 @@
+package io.neverending25.api.cache;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class ValidationCache {
+    @Value("${validation.cache.max-entries:500}")
+    private int maxEntries;
+    @Value("${validation.cache.ttl:1h}")
+    private Duration ttl;
+
+    private LruCache<String, Map<String, Object>> entries;
+    private final SingleFlight<String, Map<String, Object>> inFlight = new SingleFlight<>();
+
+    @PostConstruct
+    void init() {
+        entries = new LruCache<>(maxEntries, ttl);
+    }
+
+    public Map<String, Object> get(String key) {
+        return entries.get(key);
+    }
+
+    public Map<String, Object> compute(String key, Supplier<Map<String, Object>> validator) {
+        return compute(key, validator, () -> { });
+    }
+
+    public Map<String, Object> compute(String key, Supplier<Map<String, Object>> validator, Runnable onCoalesced) {
+        return inFlight.execute(key, () -> {
+            Map<String, Object> cached = entries.peek(key);
+            if (cached != null) {
+                return cached;
+            }
+            Map<String, Object> result = validator.get();
+            entries.put(key, result);
+            return result;
+        }, onCoalesced);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", entries.hits());
+        stats.put("misses", entries.misses());
+        stats.put("evictions", entries.evictions());
+        stats.put("expirations", entries.expirations());
+        stats.put("coalesced", inFlight.coalesced());
+        return stats;
+    }
+}
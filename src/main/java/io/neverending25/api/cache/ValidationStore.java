@@ -0,0 +1,35 @@
+package io.neverending25.api.cache;
+
+import io.neverending25.api.dto.FloorPlan;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Component
+public class ValidationStore {
+    @Value("${validation.store.max-entries:1000}")
+    private int maxEntries;
+    @Value("${validation.store.ttl:2h}")
+    private Duration ttl;
+
+    private LruCache<String, Entry> entries;
+
+    @PostConstruct
+    void init() {
+        entries = new LruCache<>(maxEntries, ttl);
+    }
+
+    public void put(String id, FloorPlan plan, Map<String, Object> result) {
+        entries.put(id, new Entry(plan, result));
+    }
+
+    public Entry get(String id) {
+        return entries.get(id);
+    }
+
+    public record Entry(FloorPlan plan, Map<String, Object> result) {
+    }
+}
@@ -0,0 +1,100 @@
+package io.neverending25.api.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class Base64FormInputStream extends InputStream {
+    private static final int CHUNK = 3 * 1024;
+
+    private final InputStream source;
+    private final byte[] raw = new byte[CHUNK];
+    private byte[] pending;
+    private int position;
+    private boolean sourceDone;
+
+    public Base64FormInputStream(String fieldName, InputStream source) {
+        this.source = source;
+        this.pending = (fieldName + "=").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return pending[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, pending.length - position);
+        System.arraycopy(pending, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        while (position == pending.length) {
+            if (sourceDone) {
+                return false;
+            }
+            int filled = source.readNBytes(raw, 0, CHUNK);
+            if (filled < CHUNK) {
+                sourceDone = true;
+            }
+            pending = percentEncode(Base64.getEncoder().encode(filled == CHUNK ? raw : slice(filled)));
+            position = 0;
+        }
+        return true;
+    }
+
+    private byte[] slice(int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(raw, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static byte[] percentEncode(byte[] base64) {
+        int escaped = 0;
+        for (byte c : base64) {
+            if (c == '+' || c == '/' || c == '=') {
+                escaped++;
+            }
+        }
+        if (escaped == 0) {
+            return base64;
+        }
+
+        byte[] out = new byte[base64.length + escaped * 2];
+        int i = 0;
+        for (byte c : base64) {
+            switch (c) {
+                case '+' -> i = escape(out, i, '2', 'B');
+                case '/' -> i = escape(out, i, '2', 'F');
+                case '=' -> i = escape(out, i, '3', 'D');
+                default -> out[i++] = c;
+            }
+        }
+        return out;
+    }
+
+    private static int escape(byte[] out, int i, char hi, char lo) {
+        out[i++] = '%';
+        out[i++] = (byte) hi;
+        out[i++] = (byte) lo;
+        return i;
+    }
+}
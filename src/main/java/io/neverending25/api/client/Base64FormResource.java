@@ -0,0 +1,37 @@
+package io.neverending25.api.client;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public class Base64FormResource extends AbstractResource {
+    private final String fieldName;
+    private final InputStreamSource source;
+
+    public Base64FormResource(String fieldName, InputStreamSource source) {
+        this.fieldName = fieldName;
+        this.source = source;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new Base64FormInputStream(fieldName, source.getInputStream());
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Base64 form field [" + fieldName + "]";
+    }
+}
@@ -0,0 +1,15 @@
+package io.neverending25.api.client;
+
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import java.util.Map;
+
+public interface LlmClient {
+    @PostExchange("/api/generate")
+    Map<String, Object> generate(@RequestBody Map<String, Object> request);
+
+    @GetExchange("/api/tags")
+    Map<String, Object> tags();
+}
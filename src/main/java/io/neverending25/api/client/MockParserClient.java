@@ -1,28 +1,51 @@
 package io.neverending25.api.client;
 
+import io.neverending25.api.dto.FloorPlan;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
-import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 @Component
 @Profile("demo")
 @RequiredArgsConstructor
 public class MockParserClient implements ParserClient {
     private final ObjectMapper objectMapper;
+    private volatile FloorPlan mockPlan;
 
     @Override
-    public Map<String, Object> parse(String imageBase64) {
-        try (InputStream is = getClass().getResourceAsStream("/demo/mock-floorplan.json")) {
-            return objectMapper.readValue(is, new TypeReference<Map<String, Object>>() {});
+    public FloorPlan parse(String imageBase64) {
+        return loadMockPlan();
+    }
+
+    @Override
+    public FloorPlan parse(Resource formBody) {
+        try (InputStream is = formBody.getInputStream()) {
+            is.transferTo(OutputStream.nullOutputStream());
         }
-        catch (Exception e) {
-            throw new RuntimeException(e);
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return loadMockPlan();
+    }
+
+    private FloorPlan loadMockPlan() {
+        FloorPlan plan = mockPlan;
+        if (plan == null) {
+            try (InputStream is = getClass().getResourceAsStream("/demo/mock-floorplan.json")) {
+                plan = objectMapper.readValue(is, FloorPlan.class);
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            mockPlan = plan;
         }
+        return plan.copy();
     }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package io.neverending25.api.client;
 
+import io.neverending25.api.dto.FloorPlan;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.PostExchange;
 
-import java.util.Map;
-
 public interface ParserClient {
     @PostExchange("/raster-to-vector-base64")
-    Map<String, Object> parse(@RequestParam("file") String imageBase64);
+    FloorPlan parse(@RequestParam("file") String imageBase64);
+
+    @PostExchange(value = "/raster-to-vector-base64", contentType = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    FloorPlan parse(@RequestBody Resource formBody);
 }
\ No newline at end of file
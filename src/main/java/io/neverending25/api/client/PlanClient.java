@@ -1,5 +1,6 @@
 package io.neverending25.api.client;
 
+import io.neverending25.api.dto.FloorPlan;
 import io.neverending25.api.dto.PageResponse;
 import io.neverending25.api.dto.PlanResponse;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -7,7 +8,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.PostExchange;
 
-import java.util.Map;
+import java.util.List;
 
 public interface PlanClient {
     @GetExchange("/plans")
@@ -16,6 +17,15 @@ public interface PlanClient {
             @RequestParam Integer size
     );
 
+    @GetExchange("/plans")
+    PageResponse<PlanResponse> getPlansAfter(
+            @RequestParam String cursor,
+            @RequestParam Integer size
+    );
+
     @PostExchange("/plans")
-    String createPlan(@RequestBody Map<String, Object> plan);
+    String createPlan(@RequestBody FloorPlan plan);
+
+    @PostExchange("/plans/batch")
+    String createPlans(@RequestBody List<FloorPlan> plans);
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package io.neverending25.api.config;
+
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+record ClientPolicy(Duration connectTimeout, Duration timeout, int maxConnections,
+                    boolean hedge, double hedgePercentile, Duration hedgeMinDelay, double hedgeMaxRatio,
+                    int circuitWindow, double circuitFailureRate, Duration circuitOpenDuration) {
+
+    static ClientPolicy of(Environment environment, String client) {
+        String prefix = client + ".";
+        return new ClientPolicy(
+                environment.getProperty(prefix + "connect-timeout", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty(prefix + "timeout", Duration.class, Duration.ofSeconds(30)),
+                environment.getProperty(prefix + "pool.max-connections", Integer.class, 50),
+                environment.getProperty(prefix + "hedge.enabled", Boolean.class, false),
+                environment.getProperty(prefix + "hedge.percentile", Double.class, 0.95),
+                environment.getProperty(prefix + "hedge.min-delay", Duration.class, Duration.ofSeconds(1)),
+                environment.getProperty(prefix + "hedge.max-ratio", Double.class, 0.1),
+                environment.getProperty(prefix + "circuit.window", Integer.class, 20),
+                environment.getProperty(prefix + "circuit.failure-rate", Double.class, 0.5),
+                environment.getProperty(prefix + "circuit.open-duration", Duration.class, Duration.ofSeconds(30)));
+    }
+}
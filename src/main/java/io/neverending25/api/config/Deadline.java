@@ -0,0 +1,42 @@
+package io.neverending25.api.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.Callable;
+
+public final class Deadline {
+    private static final String ATTRIBUTE = Deadline.class.getName();
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private Deadline() {
+    }
+
+    static void start(HttpServletRequest request, long deadlineNanos) {
+        request.setAttribute(ATTRIBUTE, deadlineNanos);
+    }
+
+    public static Long current() {
+        Long deadline = CURRENT.get();
+        if (deadline != null) {
+            return deadline;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : (Long) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    static <T> T call(long deadlineNanos, Callable<T> work) throws Exception {
+        Long previous = CURRENT.get();
+        CURRENT.set(deadlineNanos);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
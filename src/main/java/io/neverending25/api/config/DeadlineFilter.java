@@ -0,0 +1,42 @@
+package io.neverending25.api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@Component
+public class DeadlineFilter extends OncePerRequestFilter {
+    @Value("${request.deadline.header}")
+    private String header;
+    @Value("${request.deadline.default-budget}")
+    private Duration defaultBudget;
+    @Value("${request.deadline.max-budget}")
+    private Duration maxBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        Deadline.start(request, start + budget(request.getHeader(header)).toNanos());
+        chain.doFilter(request, response);
+    }
+
+    private Duration budget(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return defaultBudget;
+        }
+        try {
+            Duration budget = Duration.ofMillis(Long.parseLong(requested.trim()));
+            return budget.compareTo(maxBudget) > 0 ? maxBudget : budget;
+        } catch (NumberFormatException e) {
+            return defaultBudget;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.neverending25.api.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+    private final String header;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Long deadline = Deadline.current();
+        if (deadline != null) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            request.getHeaders().set(header, String.valueOf(Math.max(0, remaining)));
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,59 @@
+package io.neverending25.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+@Slf4j
+class FormatFallbackClient implements InvocationHandler {
+    private final Object preferred;
+    private final Object fallback;
+    private final String name;
+    private final String format;
+    private volatile boolean rejected;
+
+    private FormatFallbackClient(Object preferred, Object fallback, String name, String format) {
+        this.preferred = preferred;
+        this.fallback = fallback;
+        this.name = name;
+        this.format = format;
+    }
+
+    static <T> T wrap(Class<T> type, T preferred, T fallback, String name, String format) {
+        FormatFallbackClient handler = new FormatFallbackClient(preferred, fallback, name, format);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(preferred, args);
+        }
+        if (!rejected) {
+            try {
+                return call(preferred, method, args);
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() != HttpStatus.UNSUPPORTED_MEDIA_TYPE
+                        && e.getStatusCode() != HttpStatus.NOT_ACCEPTABLE) {
+                    throw e;
+                }
+                rejected = true;
+                log.warn("{} does not accept {} ({}), falling back to JSON", name, format, e.getStatusCode());
+            }
+        }
+        return call(fallback, method, args);
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
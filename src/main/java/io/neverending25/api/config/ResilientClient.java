@@ -0,0 +1,240 @@
+package io.neverending25.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ResilientClient implements InvocationHandler {
+    private static final int LATENCY_WINDOW = 256;
+
+    private final Object delegate;
+    private final String name;
+    private final ClientPolicy policy;
+    private final Set<String> hedgedMethods;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int nextLatency;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    private ResilientClient(Object delegate, String name, ClientPolicy policy, Set<String> hedgedMethods,
+                            ExecutorService executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.name = name;
+        this.policy = policy;
+        this.hedgedMethods = policy.hedge() ? hedgedMethods : Set.of();
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker(policy.circuitWindow(), policy.circuitFailureRate(),
+                policy.circuitOpenDuration());
+        Gauge.builder("api.client.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .tag("client", name)
+                .register(meterRegistry);
+        TimeGauge.builder("api.client.hedge.delay", this, TimeUnit.NANOSECONDS, ResilientClient::hedgeDelay)
+                .tag("client", name)
+                .register(meterRegistry);
+    }
+
+    static <T> T wrap(Class<T> type, T delegate, String name, ClientPolicy policy, Set<String> hedgedMethods,
+                      ExecutorService executor, MeterRegistry meterRegistry) {
+        ResilientClient handler = new ResilientClient(delegate, name, policy, hedgedMethods, executor, meterRegistry);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(delegate, args);
+        }
+        long start = System.nanoTime();
+        try {
+            return call(method, args, start);
+        } finally {
+            ServerTiming.record(name, System.nanoTime() - start);
+        }
+    }
+
+    private Object call(Method method, Object[] args, long start) throws Throwable {
+        long timeout = policy.timeout().toNanos();
+        Long requestDeadline = Deadline.current();
+        boolean budgetLimited = requestDeadline != null && requestDeadline - start < timeout;
+        if (budgetLimited) {
+            timeout = requestDeadline - start;
+        }
+        if (timeout <= 0) {
+            event("deadline_exceeded");
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                    "No time left in the request budget to call " + name);
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            event("short_circuit");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, name + " is unavailable");
+        }
+
+        calls.incrementAndGet();
+        long deadline = start + timeout;
+        boolean hedgePending = hedgedMethods.contains(method.getName()) && replayable(args);
+        long hedgeAt = hedgePending ? start + hedgeDelay() : deadline;
+        ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        List<Attempt> attempts = new ArrayList<>();
+        attempts.add(new Attempt(completion, method, args, deadline));
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (now - deadline >= 0) {
+                    if (budgetLimited) {
+                        circuitBreaker.release();
+                        event("deadline_exceeded");
+                    } else {
+                        circuitBreaker.onFailure();
+                        event("timeout");
+                    }
+                    throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, name + " did not answer in time");
+                }
+                long wakeAt = hedgePending && hedgeAt - deadline < 0 ? hedgeAt : deadline;
+                Future<Object> done = completion.poll(wakeAt - now, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (hedgePending && System.nanoTime() - hedgeAt >= 0) {
+                        hedgePending = false;
+                        if (hedges.get() < calls.get() * policy.hedgeMaxRatio() + 1) {
+                            hedges.incrementAndGet();
+                            event("hedge");
+                            attempts.add(new Attempt(completion, method, args, deadline));
+                        }
+                    }
+                    continue;
+                }
+
+                try {
+                    Object result = done.get();
+                    circuitBreaker.onSuccess();
+                    if (done != attempts.get(0).future) {
+                        event("hedge_won");
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    hedgePending = false;
+                    if (attempts.stream().allMatch(attempt -> attempt.future.isDone())) {
+                        Throwable cause = e.getCause();
+                        if (isFailure(cause)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                        throw cause;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted calling " + name);
+        } finally {
+            for (Attempt attempt : attempts) {
+                attempt.future.cancel(true);
+                attempt.recordLatency();
+            }
+        }
+    }
+
+    private final class Attempt implements Callable<Object> {
+        private final Method method;
+        private final Object[] args;
+        private final long deadline;
+        private final long begin = System.nanoTime();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private final Future<Object> future;
+
+        private Attempt(ExecutorCompletionService<Object> completion, Method method, Object[] args, long deadline) {
+            this.method = method;
+            this.args = args;
+            this.deadline = deadline;
+            this.future = completion.submit(this);
+        }
+
+        @Override
+        public Object call() throws Exception {
+            try {
+                return Deadline.call(deadline, () -> {
+                    try {
+                        return method.invoke(delegate, args);
+                    } catch (InvocationTargetException e) {
+                        if (e.getCause() instanceof Exception cause) {
+                            throw cause;
+                        }
+                        throw (Error) e.getCause();
+                    }
+                });
+            } finally {
+                recordLatency();
+            }
+        }
+
+        private void recordLatency() {
+            if (recorded.compareAndSet(false, true)) {
+                ResilientClient.this.recordLatency(System.nanoTime() - begin);
+            }
+        }
+    }
+
+    private static boolean replayable(Object[] args) {
+        return args == null || Arrays.stream(args).noneMatch(arg -> arg instanceof Resource resource && resource.isOpen());
+    }
+
+    private static boolean isFailure(Throwable error) {
+        return !(error instanceof HttpStatusCodeException status) || status.getStatusCode().is5xxServerError();
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[nextLatency] = nanos;
+        nextLatency = (nextLatency + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    private long hedgeDelay() {
+        long floor = policy.hedgeMinDelay().toNanos();
+        long[] window;
+        synchronized (this) {
+            if (latencyCount < latencies.length / 4) {
+                return floor;
+            }
+            window = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(window);
+        int index = (int) Math.ceil(policy.hedgePercentile() * window.length) - 1;
+        return Math.max(floor, window[Math.max(0, index)]);
+    }
+
+    private void event(String event) {
+        Counter.builder("api.client.events")
+                .tag("client", name)
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment();
+    }
+}
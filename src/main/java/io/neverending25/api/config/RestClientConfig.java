@@ -1,44 +1,163 @@
 package io.neverending25.api.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.neverending25.api.client.ParserClient;
 import io.neverending25.api.client.PlanClient;
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
 @Configuration
+@RequiredArgsConstructor
 public class RestClientConfig {
+    private final Environment environment;
+
     @Value("${parser.url}")
     private String parserUrl;
     @Value("${plan.url}")
     private String planUrl;
+    @Value("${plan.format}")
+    private String planFormat;
+    @Value("${llm.connect-timeout}")
+    private Duration llmConnectTimeout;
+    @Value("${llm.read-timeout}")
+    private Duration llmReadTimeout;
+    @Value("${llm.pool.max-connections}")
+    private int llmMaxConnections;
+    @Value("${llm.pool.idle-timeout}")
+    private Duration llmIdleTimeout;
+    @Value("${request.deadline.header}")
+    private String deadlineHeader;
 
     @Bean
-    @Profile("prod")
-    public ParserClient parserClient() {
+    @Profile({"prod", "loadtest"})
+    public ParserClient parserClient(MeterRegistry meterRegistry, ExecutorService virtualThreadExecutor) {
+        ClientPolicy policy = ClientPolicy.of(environment, "parser");
         RestClient restClient = RestClient.builder()
-            .baseUrl(parserUrl).build();
+            .baseUrl(parserUrl)
+            .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient(policy)))
+            .requestInterceptor(new DeadlineInterceptor(deadlineHeader))
+            .requestInterceptor(new ClientTimingInterceptor(meterRegistry, "parser"))
+            .build();
         RestClientAdapter restClientAdapter =
             RestClientAdapter.create(restClient);
         HttpServiceProxyFactory httpServiceProxyFactory =
             HttpServiceProxyFactory.builderFor(restClientAdapter).build();
 
-        return httpServiceProxyFactory.createClient(ParserClient.class);
+        return ResilientClient.wrap(ParserClient.class, httpServiceProxyFactory.createClient(ParserClient.class),
+                "parser", policy, Set.of("parse"), virtualThreadExecutor, meterRegistry);
     }
 
     @Bean
-    public PlanClient  planClient() {
+    public PlanClient  planClient(MeterRegistry meterRegistry, ExecutorService virtualThreadExecutor) {
+        ClientPolicy policy = ClientPolicy.of(environment, "plan");
         RestClient restClient = RestClient.builder()
-                .baseUrl(planUrl).build();
+                .baseUrl(planUrl)
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient(policy)))
+                .requestInterceptor(new DeadlineInterceptor(deadlineHeader))
+                .requestInterceptor(new ClientTimingInterceptor(meterRegistry, "plan"))
+                .build();
+        PlanClient planClient = createClient(PlanClient.class, restClient);
+        if (!planFormat.equals("json")) {
+            RestClient binaryRestClient = binaryFormat(restClient.mutate(), planFormat).build();
+            planClient = FormatFallbackClient.wrap(PlanClient.class,
+                    createClient(PlanClient.class, binaryRestClient), planClient, "plan", planFormat);
+        }
+
+        return ResilientClient.wrap(PlanClient.class, planClient,
+                "plan", policy, Set.of("getPlans", "getPlansAfter"), virtualThreadExecutor, meterRegistry);
+    }
+
+    static RestClient.Builder binaryFormat(RestClient.Builder builder, String format) {
+        HttpMessageConverter<?> converter = switch (format) {
+            case "cbor" -> new JacksonCborHttpMessageConverter();
+            case "smile" -> new JacksonSmileHttpMessageConverter();
+            default -> throw new IllegalStateException("Unsupported plan.format: " + format);
+        };
+        List<MediaType> accept = List.of(converter.getSupportedMediaTypes().getFirst(),
+                MediaType.parseMediaType("application/json;q=0.9"));
+        return builder
+                .configureMessageConverters(converters -> converters.addCustomConverter(converter).registerDefaults())
+                .requestInterceptor((request, body, execution) -> {
+                    if (request.getMethod() == HttpMethod.GET && request.getHeaders().getAccept().isEmpty()) {
+                        request.getHeaders().setAccept(accept);
+                    }
+                    return execution.execute(request, body);
+                });
+    }
+
+    private static <T> T createClient(Class<T> type, RestClient restClient) {
         RestClientAdapter restClientAdapter =
                 RestClientAdapter.create(restClient);
         HttpServiceProxyFactory httpServiceProxyFactory =
                 HttpServiceProxyFactory.builderFor(restClientAdapter).build();
 
-        return httpServiceProxyFactory.createClient(PlanClient.class);
+        return httpServiceProxyFactory.createClient(type);
+    }
+
+    private static CloseableHttpClient httpClient(ClientPolicy policy) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(policy.connectTimeout()))
+                .setSocketTimeout(Timeout.of(policy.timeout()))
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(policy.connectTimeout()))
+                .setResponseTimeout(Timeout.of(policy.timeout()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(policy.maxConnections())
+                        .setMaxConnPerRoute(policy.maxConnections())
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .build())
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    @Bean
+    public CloseableHttpClient llmHttpClient() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(llmConnectTimeout))
+                .setSocketTimeout(Timeout.of(llmReadTimeout))
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(llmConnectTimeout))
+                .setResponseTimeout(Timeout.of(llmReadTimeout))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(llmMaxConnections)
+                        .setMaxConnPerRoute(llmMaxConnections)
+                        .setDefaultConnectionConfig(connectionConfig)
+                        .build())
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(TimeValue.of(llmIdleTimeout))
+                .build();
     }
-}
\ No newline at end of file
+}
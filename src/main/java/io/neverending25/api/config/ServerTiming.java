@@ -0,0 +1,95 @@
+package io.neverending25.api.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public final class ServerTiming {
+    private static final String ATTRIBUTE = ServerTiming.class.getName();
+    private static final ThreadLocal<Map<String, Long>> CURRENT = new ThreadLocal<>();
+
+    private ServerTiming() {
+    }
+
+    public static void record(String name, long nanos) {
+        Map<String, Long> timings = current();
+        if (timings == null) {
+            return;
+        }
+        synchronized (timings) {
+            timings.merge(name, nanos, Long::sum);
+        }
+    }
+
+    public static Runnable propagate(Runnable task) {
+        Map<String, Long> timings = current();
+        if (timings == null) {
+            return task;
+        }
+        return () -> collect(timings, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static <T> T collect(Map<String, Long> timings, Supplier<T> work) {
+        Map<String, Long> previous = CURRENT.get();
+        CURRENT.set(timings);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static String header() {
+        return format(current());
+    }
+
+    public static String format(Map<String, Long> timings) {
+        if (timings == null) {
+            return null;
+        }
+        synchronized (timings) {
+            if (timings.isEmpty()) {
+                return null;
+            }
+            StringBuilder header = new StringBuilder();
+            timings.forEach((name, nanos) -> {
+                if (!header.isEmpty()) {
+                    header.append(", ");
+                }
+                header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1e6));
+            });
+            return header.toString();
+        }
+    }
+
+    private static Map<String, Long> current() {
+        Map<String, Long> timings = CURRENT.get();
+        if (timings != null) {
+            return timings;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        synchronized (attributes) {
+            @SuppressWarnings("unchecked")
+            Map<String, Long> stored = (Map<String, Long>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (stored == null) {
+                stored = new LinkedHashMap<>();
+                attributes.setAttribute(ATTRIBUTE, stored, RequestAttributes.SCOPE_REQUEST);
+            }
+            return stored;
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package io.neverending25.api.controller;
 
+import io.neverending25.api.cache.PlanPageCache;
+import io.neverending25.api.dto.FloorPlan;
 import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanDelta;
 import io.neverending25.api.dto.PlanResponse;
+import io.neverending25.api.dto.ValidationJob;
 import io.neverending25.api.service.APIService;
+import io.neverending25.api.service.BatchValidationService;
+import io.neverending25.api.service.DeltaValidationService;
+import io.neverending25.api.service.PlanExportService;
 import io.neverending25.api.service.PlanService;
+import io.neverending25.api.service.PlanWriteBehind;
+import io.neverending25.api.service.StreamService;
+import io.neverending25.api.service.ValidationJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -12,19 +22,46 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 @RestController
 @RequestMapping("/api")
 @Tag(name = "Floor Plan API", description = "AI-powered floor plan analysis and validation")
 @RequiredArgsConstructor
 public class APIController {
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
     private final APIService apiService;
     private final PlanService planService;
+    private final PlanWriteBehind planWriteBehind;
+    private final PlanExportService planExportService;
+    private final DeltaValidationService deltaValidationService;
+    private final StreamService streamService;
+    private final ValidationJobService validationJobService;
+    private final BatchValidationService batchValidationService;
+    private final ExecutorService virtualThreadExecutor;
 
     @PostMapping("/parse")
     @ResponseStatus(HttpStatus.OK)
@@ -76,10 +113,46 @@ public class APIController {
                     )
             )
     )
-    public Map<String, Object> parse(@RequestBody Map<String, Object> body) {
+    public FloorPlan parse(@RequestBody Map<String, Object> body) {
         return apiService.parse(body);
     }
 
+    @PostMapping(value = "/parse", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Parse floor plan from binary image",
+            description = "Streams a raw floor plan image to the parser without buffering it in memory"
+    )
+    public FloorPlan parseBinary(InputStream image) throws IOException {
+        return apiService.parse(image);
+    }
+
+    @PostMapping(value = "/parse", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Parse floor plan from uploaded file",
+            description = "Streams a multipart floor plan image upload to the parser without buffering it in memory"
+    )
+    public FloorPlan parseMultipart(@RequestParam("file") MultipartFile file) throws IOException {
+        Path image = Files.createTempFile("floorplan-", ".upload");
+        try {
+            file.transferTo(image.toFile());
+            return apiService.parse(image);
+        } finally {
+            Files.deleteIfExists(image);
+        }
+    }
+
+    @GetMapping("/parse/cache")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Parse cache statistics",
+            description = "Hit, miss and eviction counters of the parsed floor plan cache"
+    )
+    public Map<String, Object> parseCacheStats() {
+        return apiService.parseCacheStats();
+    }
+
     @PostMapping("/validate")
     @ResponseStatus(HttpStatus.OK)
     @Operation(
@@ -152,8 +225,76 @@ public class APIController {
                     )
             )
     )
-    public Map<String, Object> validate(@RequestBody Map<String, Object> body) {
-        return apiService.validatePlanViaLlama(body);
+    public Map<String, Object> validate(@RequestBody FloorPlan plan) {
+        return apiService.validatePlanViaLlama(plan);
+    }
+
+    @PostMapping(
+            value = "/validate/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Validate a batch of floor plans",
+            description = "Accepts a JSON array or NDJSON stream of plans and streams one NDJSON line per plan, "
+                    + "{\"index\": n, \"result\": {...}} or {\"index\": n, \"error\": \"...\"}, in completion order"
+    )
+    public WebAsyncTask<Void> validateBatch(InputStream plans, HttpServletResponse response) {
+        return ndjson(batchValidationService.validate(plans), batchValidationService.getTimeout(), response);
+    }
+
+    @PostMapping("/validate/{validationId}/delta")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Revalidate a floor plan from a delta",
+            description = "Applies added, removed or moved walls and doors to the plan of a previous validation, "
+                    + "re-checks door access for the rooms around the change and reuses the previous findings "
+                    + "elsewhere. Previous findings around the change that cannot be re-checked are returned as "
+                    + "unverified_issues and keep the plan invalid; the result is marked partial. "
+                    + "Returns a new validation_id for chaining further edits"
+    )
+    public Map<String, Object> validateDelta(@PathVariable String validationId, @RequestBody PlanDelta delta) {
+        return deltaValidationService.validate(validationId, delta);
+    }
+
+    @PostMapping("/validate/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(
+            summary = "Submit floor plan validation job",
+            description = "Starts /validate in the background and returns a job id to poll"
+    )
+    public ValidationJob submitValidationJob(@RequestBody FloorPlan plan) {
+        return validationJobService.submit(plan);
+    }
+
+    @GetMapping("/validate/jobs/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Get floor plan validation job",
+            description = "Returns the status of a validation job and, once done, its validation report"
+    )
+    public ValidationJob getValidationJob(@PathVariable String id) {
+        return validationJobService.get(id);
+    }
+
+    @GetMapping("/validate/cache")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Validation cache statistics",
+            description = "Hit, miss, eviction and expiration counters of the plan validation cache"
+    )
+    public Map<String, Object> validationCacheStats() {
+        return apiService.validationCacheStats();
+    }
+
+    @PostMapping(value = "/validate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Validate floor plan with AI (streaming)",
+            description = "Same as /validate, streamed as Server-Sent Events: 'stage' and 'token' events while Llama 3 generates, then a 'timing' event with the Server-Timing value and a final 'result' event. A request that joins an identical validation already in flight gets a 'coalesced' stage instead of 'token' events"
+    )
+    public SseEmitter validateStream(@RequestBody FloorPlan plan) {
+        return streamService.validate(plan);
     }
 
     @PostMapping("/llm")
@@ -195,8 +336,36 @@ public class APIController {
         return apiService.llm(body);
     }
 
-    @GetMapping("/plans")
+    @PostMapping(value = "/llm/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Chat with Llama 3 (streaming)",
+            description = "Same as /llm, streamed as Server-Sent Events: 'token' events as they are generated, then a 'timing' event with the Server-Timing value and a final 'result' event"
+    )
+    public SseEmitter llmStream(@RequestBody Map<String, Object> body) {
+        return streamService.llm(body);
+    }
+
+    @GetMapping("/llm/admission")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "LLM admission statistics",
+            description = "In-flight generations, queue depth, wait times and rejections of the LLM concurrency limiter"
+    )
+    public Map<String, Object> llmAdmissionStats() {
+        return apiService.llmAdmissionStats();
+    }
+
+    @GetMapping("/llm/nodes")
     @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "LLM node pool",
+            description = "Health, served models, outstanding requests and latency of each LLM backend node"
+    )
+    public Map<String, Object> llmNodeStats() {
+        return apiService.llmNodeStats();
+    }
+
+    @GetMapping("/plans")
     @Operation(
             summary = "Get paginated plans",
             description = "Retrieve a paginated list of floor plans with metadata"
@@ -233,6 +402,10 @@ public class APIController {
                     )
             )
     )
+    @ApiResponse(
+            responseCode = "304",
+            description = "Page unchanged since the ETag sent in If-None-Match"
+    )
     @ApiResponse(
             responseCode = "400",
             description = "Invalid pagination parameters",
@@ -267,8 +440,82 @@ public class APIController {
     )
     public PageResponse<PlanResponse> getPlans(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest request,
+            HttpServletResponse response
     ) {
-        return planService.getPlans(page, size);
+        PlanPageCache.Page cached = planService.getPlans(page, size);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (request.checkNotModified(etagFor(cached.etag(), accept))) {
+            return null;
+        }
+        return cached.content();
+    }
+
+    private static String etagFor(String etag, String accept) {
+        if (accept == null) {
+            return etag;
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return etag;
+        }
+        MimeTypeUtils.sortBySpecificity(types);
+        for (MediaType type : types) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return etag;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return etag.substring(0, etag.length() - 1) + "-cbor\"";
+            }
+            if (type.includes(APPLICATION_SMILE)) {
+                return etag.substring(0, etag.length() - 1) + "-smile\"";
+            }
+        }
+        return etag;
+    }
+
+    @GetMapping(value = "/plans/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Export all plans",
+            description = "Streams every stored plan as NDJSON, one PlanResponse per line, walking the plan service "
+                    + "page by page (or by cursor when the plan service returns nextCursor). Each plan id is "
+                    + "emitted at most once, even if plans shift between pages during the export"
+    )
+    public WebAsyncTask<Void> exportPlans(HttpServletResponse response) {
+        return ndjson(planExportService.export(), planExportService.getTimeout(), response);
+    }
+
+    private WebAsyncTask<Void> ndjson(StreamingResponseBody body, Duration timeout, HttpServletResponse response) {
+        return new WebAsyncTask<>(timeout.toMillis(), new TaskExecutorAdapter(virtualThreadExecutor), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    @GetMapping("/plans/cache")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Plan page cache statistics",
+            description = "Entries, hits, misses and expirations of the read-through cache in front of the plan service"
+    )
+    public Map<String, Object> planPageCacheStats() {
+        return planService.pageCacheStats();
+    }
+
+    @GetMapping("/plans/write-behind")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(
+            summary = "Plan write-behind statistics",
+            description = "Queued, persisted, spooled and replayed counts of the asynchronous plan persistence queue"
+    )
+    public Map<String, Object> planWriteBehindStats() {
+        return planWriteBehind.stats();
     }
 }
\ No newline at end of file
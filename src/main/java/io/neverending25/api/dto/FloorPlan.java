@@ -0,0 +1,76 @@
+package io.neverending25.api.dto;
+
+import lombok.Data;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+@Data
+@JsonSerialize(using = FloorPlanSerializer.class)
+@JsonDeserialize(using = FloorPlanDeserializer.class)
+public class FloorPlan {
+    public static final int WALL_STRIDE = 4;
+    public static final int DOOR_STRIDE = 8;
+
+    private int[] walls = new int[0];
+    private int[] doors = new int[0];
+    private int[] roomOffsets = {0};
+    private int[] roomXs = new int[0];
+    private int[] roomYs = new int[0];
+    private String[] roomIds = new String[0];
+    private int[] loadBearingWalls;
+    private double area = Double.NaN;
+    private double perimeter = Double.NaN;
+
+    public int wallCount() {
+        return walls.length / WALL_STRIDE;
+    }
+
+    public int doorCount() {
+        return doors.length / DOOR_STRIDE;
+    }
+
+    public int roomCount() {
+        return roomOffsets.length - 1;
+    }
+
+    public FloorPlan copy() {
+        FloorPlan copy = new FloorPlan();
+        copy.walls = walls.clone();
+        copy.doors = doors.clone();
+        copy.roomOffsets = roomOffsets.clone();
+        copy.roomXs = roomXs.clone();
+        copy.roomYs = roomYs.clone();
+        copy.roomIds = roomIds.clone();
+        copy.loadBearingWalls = loadBearingWalls == null ? null : loadBearingWalls.clone();
+        copy.area = area;
+        copy.perimeter = perimeter;
+        return copy;
+    }
+
+    public FloorPlan scaled(double sx, double sy) {
+        FloorPlan scaled = copy();
+        scaled.walls = scalePoints(walls, sx, sy);
+        scaled.doors = scalePoints(doors, sx, sy);
+        scaled.roomXs = scale(roomXs, sx);
+        scaled.roomYs = scale(roomYs, sy);
+        scaled.area = area * sx * sy;
+        scaled.perimeter = perimeter * (sx + sy) / 2;
+        return scaled;
+    }
+
+    private static int[] scalePoints(int[] points, double sx, double sy) {
+        int[] scaled = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            scaled[i] = (int) Math.round(points[i] * (i % 2 == 0 ? sx : sy));
+        }
+        return scaled;
+    }
+
+    private static int[] scale(int[] values, double factor) {
+        int[] scaled = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = (int) Math.round(values[i] * factor);
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,172 @@
+package io.neverending25.api.dto;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FloorPlanDeserializer extends ValueDeserializer<FloorPlan> {
+
+    @Override
+    public FloorPlan deserialize(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+
+        FloorPlan plan = new FloorPlan();
+        IntList roomOffsets = new IntList();
+        IntList roomXs = new IntList();
+        IntList roomYs = new IntList();
+        List<String> roomIds = new ArrayList<>();
+        roomOffsets.add(0);
+
+        for (; token == JsonToken.PROPERTY_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "walls" -> plan.setWalls(readShapes(p, ctxt, "position", 2));
+                case "doors" -> plan.setDoors(readShapes(p, ctxt, "bbox", 4));
+                case "load_bearing_walls" -> plan.setLoadBearingWalls(readShapes(p, ctxt, "position", 2));
+                case "rooms" -> readRooms(p, ctxt, roomOffsets, roomXs, roomYs, roomIds);
+                case "area" -> plan.setArea(readDouble(p, ctxt));
+                case "perimeter" -> plan.setPerimeter(readDouble(p, ctxt));
+                default -> ctxt.handleUnknownProperty(p, this, FloorPlan.class, name);
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return ctxt.reportInputMismatch(FloorPlan.class, "Expected floor plan object, got %s", token);
+        }
+
+        plan.setRoomOffsets(roomOffsets.toArray());
+        plan.setRoomXs(roomXs.toArray());
+        plan.setRoomYs(roomYs.toArray());
+        plan.setRoomIds(roomIds.toArray(String[]::new));
+        return plan;
+    }
+
+    private static int[] readShapes(JsonParser p, DeserializationContext ctxt, String key, int points) {
+        IntList coordinates = new IntList();
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return coordinates.toArray();
+        }
+        expect(p, ctxt, JsonToken.START_ARRAY);
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            expect(p, ctxt, JsonToken.START_OBJECT);
+            int start = coordinates.size();
+            while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = p.currentName();
+                p.nextToken();
+                if (name.equals(key) && coordinates.size() == start) {
+                    readPoints(p, ctxt, key, points, coordinates);
+                } else if (name.equals(key)) {
+                    ctxt.reportInputMismatch(FloorPlan.class, "Duplicate \"%s\"", key);
+                } else {
+                    ctxt.handleUnknownProperty(p, null, FloorPlan.class, name);
+                }
+            }
+            if (coordinates.size() == start) {
+                ctxt.reportInputMismatch(FloorPlan.class, "Missing \"%s\"", key);
+            }
+        }
+        return coordinates.toArray();
+    }
+
+    private static void readPoints(JsonParser p, DeserializationContext ctxt, String key, int points,
+                                   IntList coordinates) {
+        expect(p, ctxt, JsonToken.START_ARRAY);
+        int read = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            expect(p, ctxt, JsonToken.START_ARRAY);
+            if (read++ == points) {
+                ctxt.reportInputMismatch(FloorPlan.class, "\"%s\" must have %d points", key, points);
+            }
+            p.nextToken();
+            coordinates.add(readCoordinate(p, ctxt));
+            p.nextToken();
+            coordinates.add(readCoordinate(p, ctxt));
+            if (p.nextToken() != JsonToken.END_ARRAY) {
+                ctxt.reportInputMismatch(FloorPlan.class, "A point must be [x, y], got %s", p.currentToken());
+            }
+        }
+        if (read != points) {
+            ctxt.reportInputMismatch(FloorPlan.class, "\"%s\" must have %d points, got %d", key, points, read);
+        }
+    }
+
+    private static void readRooms(JsonParser p, DeserializationContext ctxt, IntList offsets,
+                                  IntList xs, IntList ys, List<String> ids) {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        Map<String, String> interned = new HashMap<>();
+        expect(p, ctxt, JsonToken.START_ARRAY);
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (p.currentToken() == JsonToken.START_OBJECT) {
+                readRoomPoint(p, ctxt, xs, ys, ids, interned);
+            } else {
+                expect(p, ctxt, JsonToken.START_ARRAY);
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    readRoomPoint(p, ctxt, xs, ys, ids, interned);
+                }
+            }
+            offsets.add(xs.size());
+        }
+    }
+
+    private static void readRoomPoint(JsonParser p, DeserializationContext ctxt, IntList xs, IntList ys,
+                                      List<String> ids, Map<String, String> interned) {
+        expect(p, ctxt, JsonToken.START_OBJECT);
+        String id = null;
+        int x = 0;
+        int y = 0;
+        while (p.nextToken() == JsonToken.PROPERTY_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            switch (name) {
+                case "id" -> id = p.currentToken() == JsonToken.VALUE_NULL ? null : p.getValueAsString();
+                case "x" -> x = readInt(p, ctxt);
+                case "y" -> y = readInt(p, ctxt);
+                default -> ctxt.handleUnknownProperty(p, null, FloorPlan.class, name);
+            }
+        }
+        xs.add(x);
+        ys.add(y);
+        ids.add(id == null ? null : interned.computeIfAbsent(id, key -> key));
+    }
+
+    private static int readCoordinate(JsonParser p, DeserializationContext ctxt) {
+        if (p.currentToken() == JsonToken.VALUE_NULL) {
+            return ctxt.reportInputMismatch(FloorPlan.class, "Expected coordinate, got %s", p.currentToken());
+        }
+        return readInt(p, ctxt);
+    }
+
+    private static int readInt(JsonParser p, DeserializationContext ctxt) {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT -> p.getIntValue();
+            case VALUE_NUMBER_FLOAT -> (int) Math.round(p.getDoubleValue());
+            case VALUE_NULL -> 0;
+            default -> ctxt.reportInputMismatch(FloorPlan.class, "Expected coordinate, got %s", p.currentToken());
+        };
+    }
+
+    private static double readDouble(JsonParser p, DeserializationContext ctxt) {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getDoubleValue();
+            case VALUE_NULL -> Double.NaN;
+            default -> ctxt.reportInputMismatch(FloorPlan.class, "Expected number, got %s", p.currentToken());
+        };
+    }
+
+    private static void expect(JsonParser p, DeserializationContext ctxt, JsonToken expected) {
+        if (p.currentToken() != expected) {
+            ctxt.reportInputMismatch(FloorPlan.class, "Expected %s, got %s", expected, p.currentToken());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.neverending25.api.dto;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+
+public class FloorPlanSerializer extends ValueSerializer<FloorPlan> {
+
+    @Override
+    public void serialize(FloorPlan plan, JsonGenerator gen, SerializationContext ctxt) {
+        gen.writeStartObject();
+        writeShapes(gen, "walls", "position", plan.getWalls(), 2);
+        writeShapes(gen, "doors", "bbox", plan.getDoors(), 4);
+        writeRooms(gen, plan);
+        writeMeasure(gen, "area", plan.getArea());
+        writeMeasure(gen, "perimeter", plan.getPerimeter());
+        if (plan.getLoadBearingWalls() != null) {
+            writeShapes(gen, "load_bearing_walls", "position", plan.getLoadBearingWalls(), 2);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeShapes(JsonGenerator gen, String name, String key, int[] coordinates, int points) {
+        gen.writeName(name);
+        gen.writeStartArray();
+        for (int offset = 0; offset < coordinates.length; offset += points * 2) {
+            gen.writeStartObject();
+            gen.writeName(key);
+            gen.writeStartArray();
+            for (int p = 0; p < points; p++) {
+                gen.writeArray(coordinates, offset + p * 2, 2);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeRooms(JsonGenerator gen, FloorPlan plan) {
+        int[] offsets = plan.getRoomOffsets();
+        gen.writeName("rooms");
+        gen.writeStartArray();
+        for (int r = 0; r + 1 < offsets.length; r++) {
+            gen.writeStartArray();
+            for (int p = offsets[r]; p < offsets[r + 1]; p++) {
+                gen.writeStartObject();
+                gen.writeName("id");
+                gen.writeString(plan.getRoomIds()[p]);
+                gen.writeName("x");
+                gen.writeNumber(plan.getRoomXs()[p]);
+                gen.writeName("y");
+                gen.writeNumber(plan.getRoomYs()[p]);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeMeasure(JsonGenerator gen, String name, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        gen.writeName(name);
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            gen.writeNumber((long) value);
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.neverending25.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -13,4 +14,6 @@ public class PageResponse<T> {
     private Long totalElements;
     private Boolean first;
     private Boolean last;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
\ No newline at end of file
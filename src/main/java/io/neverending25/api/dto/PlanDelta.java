@@ -0,0 +1,29 @@
+package io.neverending25.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PlanDelta {
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<int[][]> addedWalls = List.of();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<int[][]> removedWalls = List.of();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<Move> movedWalls = List.of();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<int[][]> addedDoors = List.of();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<int[][]> removedDoors = List.of();
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    private List<Move> movedDoors = List.of();
+
+    @Data
+    public static class Move {
+        private int[][] from;
+        private int[][] to;
+    }
+}
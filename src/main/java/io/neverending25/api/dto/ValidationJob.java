@@ -0,0 +1,19 @@
+package io.neverending25.api.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+public class ValidationJob {
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    private String id;
+    private Status status;
+    private Instant createdAt;
+    private Instant completedAt;
+    private Map<String, Object> result;
+    private String error;
+    private String serverTiming;
+}
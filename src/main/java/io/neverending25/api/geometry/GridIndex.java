@@ -0,0 +1,97 @@
+package io.neverending25.api.geometry;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class GridIndex {
+    public static final int MAX_CELLS = 1 << 16;
+
+    private final long originX;
+    private final long originY;
+    private final long cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] cellCounts;
+    private int[] seen = new int[16];
+    private int stamp;
+
+    public GridIndex(int minX, int minY, int maxX, int maxY, int cellSize) {
+        this.originX = minX;
+        this.originY = minY;
+        long width = Math.max(0, (long) maxX - minX);
+        long height = Math.max(0, (long) maxY - minY);
+        long size = Math.max(1, cellSize);
+        while (width / size + 1 > MAX_CELLS / (height / size + 1)) {
+            size *= 2;
+        }
+        this.cellSize = size;
+        this.columns = (int) (width / size + 1);
+        this.rows = (int) (height / size + 1);
+        this.cells = new int[columns * rows][];
+        this.cellCounts = new int[columns * rows];
+    }
+
+    public void add(int id, int minX, int minY, int maxX, int maxY) {
+        if (id >= seen.length) {
+            seen = Arrays.copyOf(seen, Math.max(id + 1, seen.length * 2));
+        }
+        int c0 = column(minX);
+        int c1 = column(maxX);
+        int r0 = row(minY);
+        int r1 = row(maxY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                int[] items = cells[cell];
+                if (items == null) {
+                    items = cells[cell] = new int[4];
+                } else if (cellCounts[cell] == items.length) {
+                    items = cells[cell] = Arrays.copyOf(items, items.length * 2);
+                }
+                items[cellCounts[cell]++] = id;
+            }
+        }
+    }
+
+    public void query(long minX, long minY, long maxX, long maxY, IntConsumer consumer) {
+        if (++stamp == 0) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+        int c0 = column(minX);
+        int c1 = column(maxX);
+        int r0 = row(minY);
+        int r1 = row(maxY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                int[] items = cells[cell];
+                for (int i = 0; i < cellCounts[cell]; i++) {
+                    int id = items[i];
+                    if (seen[id] != stamp) {
+                        seen[id] = stamp;
+                        consumer.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    public long extent() {
+        return Math.max(columns, rows) * cellSize;
+    }
+
+    private int column(long x) {
+        return cell(x, originX, columns);
+    }
+
+    private int row(long y) {
+        return cell(y, originY, rows);
+    }
+
+    private int cell(long value, long origin, int count) {
+        long offset = Math.clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE) - origin;
+        return Math.clamp(Math.floorDiv(offset, cellSize), 0, count - 1);
+    }
+}
@@ -0,0 +1,302 @@
+package io.neverending25.api.geometry;
+
+import java.util.Arrays;
+
+public class PlanGeometry {
+    public static final int DOOR_REACH = 50;
+    public static final int DOOR_WIDTH = 25;
+    public static final int DOOR_THICKNESS = 8;
+    public static final int LOAD_BEARING_LENGTH = 100;
+    public static final int MIN_LOAD_BEARING_WALLS = 4;
+    public static final int MAX_LOAD_BEARING_WALLS = 6;
+    public static final int MAX_COORDINATE = 1_000_000;
+    private static final int EXTERIOR_TOLERANCE = 5;
+    private static final int CELL_SIZE = 64;
+
+    private final int[] walls;
+    private final int wallCount;
+    private int[] doors;
+    private int doorCount;
+    private final int[] roomOffsets;
+    private final int[] roomXs;
+    private final int[] roomYs;
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final GridIndex wallIndex;
+    private final GridIndex doorIndex;
+
+    public PlanGeometry(int[] walls, int[] doors, int[] roomOffsets, int[] roomXs, int[] roomYs) {
+        this.walls = walls;
+        this.wallCount = walls.length / 4;
+        this.doors = doors;
+        this.doorCount = doors.length / 8;
+        this.roomOffsets = roomOffsets;
+        this.roomXs = roomXs;
+        this.roomYs = roomYs;
+
+        int[] bounds = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        include(bounds, walls);
+        include(bounds, doors);
+        for (int i = 0; i < roomXs.length; i++) {
+            include(bounds, roomXs[i], roomYs[i]);
+        }
+        if (bounds[0] > bounds[2]) {
+            bounds = new int[] {0, 0, 0, 0};
+        }
+        if (Math.min(bounds[0], bounds[1]) < -MAX_COORDINATE || Math.max(bounds[2], bounds[3]) > MAX_COORDINATE) {
+            throw new IllegalArgumentException("Plan coordinates must be within ±" + MAX_COORDINATE);
+        }
+        this.minX = bounds[0];
+        this.minY = bounds[1];
+        this.maxX = bounds[2];
+        this.maxY = bounds[3];
+
+        this.wallIndex = new GridIndex(minX, minY, maxX, maxY, CELL_SIZE);
+        for (int w = 0; w < wallCount; w++) {
+            int o = w * 4;
+            wallIndex.add(w, Math.min(walls[o], walls[o + 2]), Math.min(walls[o + 1], walls[o + 3]),
+                    Math.max(walls[o], walls[o + 2]), Math.max(walls[o + 1], walls[o + 3]));
+        }
+        this.doorIndex = new GridIndex(minX, minY, maxX, maxY, CELL_SIZE);
+        for (int d = 0; d < doorCount; d++) {
+            indexDoor(d);
+        }
+    }
+
+    public int[] addMissingDoors() {
+        int existing = doorCount;
+        int roomCount = roomOffsets.length - 1;
+        for (int r = 0; r < roomCount; r++) {
+            if (roomOffsets[r] == roomOffsets[r + 1] || hasDoorWithinReach(r)) {
+                continue;
+            }
+            int cx = centroid(roomXs, r);
+            int cy = centroid(roomYs, r);
+            int wall = nearestWall(cx, cy);
+            if (wall >= 0) {
+                appendDoor(doorOn(wall, cx, cy));
+            }
+        }
+        return Arrays.copyOfRange(doors, existing * 8, doorCount * 8);
+    }
+
+    public int[] loadBearingWalls() {
+        Integer[] order = new Integer[wallCount];
+        double[] scores = new double[wallCount];
+        int qualifying = 0;
+        for (int w = 0; w < wallCount; w++) {
+            order[w] = w;
+            double length = wallLength(w);
+            boolean exterior = isExterior(w);
+            scores[w] = exterior ? length * 1.5 : length;
+            if (length > LOAD_BEARING_LENGTH || exterior) {
+                qualifying++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byScore = Double.compare(scores[b], scores[a]);
+            return byScore != 0 ? byScore : Integer.compare(a, b);
+        });
+
+        int selected = Math.min(wallCount,
+                Math.clamp(qualifying, MIN_LOAD_BEARING_WALLS, MAX_LOAD_BEARING_WALLS));
+        int[] result = new int[selected];
+        for (int i = 0; i < selected; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    public int[] roomsIntersecting(int minX, int minY, int maxX, int maxY) {
+        int roomCount = roomOffsets.length - 1;
+        int[] result = new int[roomCount];
+        int found = 0;
+        for (int r = 0; r < roomCount; r++) {
+            if (roomOffsets[r] == roomOffsets[r + 1]) {
+                continue;
+            }
+            int[] box = roomBounds(r);
+            if (box[0] <= maxX && box[2] >= minX && box[1] <= maxY && box[3] >= minY) {
+                result[found++] = r;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    public boolean isReachable(int room) {
+        return roomOffsets[room] == roomOffsets[room + 1] || hasDoorWithinReach(room);
+    }
+
+    public int[] suggestDoor(int room) {
+        int cx = centroid(roomXs, room);
+        int cy = centroid(roomYs, room);
+        int wall = nearestWall(cx, cy);
+        return wall >= 0 ? doorOn(wall, cx, cy) : null;
+    }
+
+    public int[] roomBounds(int room) {
+        int[] box = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (int p = roomOffsets[room]; p < roomOffsets[room + 1]; p++) {
+            include(box, roomXs[p], roomYs[p]);
+        }
+        return box;
+    }
+
+    private boolean hasDoorWithinReach(int room) {
+        for (int p = roomOffsets[room]; p < roomOffsets[room + 1]; p++) {
+            int x = roomXs[p];
+            int y = roomYs[p];
+            boolean[] found = {false};
+            doorIndex.query(x - DOOR_REACH, y - DOOR_REACH, x + DOOR_REACH, y + DOOR_REACH, d -> {
+                if (!found[0] && distanceToDoor(d, x, y) <= DOOR_REACH) {
+                    found[0] = true;
+                }
+            });
+            if (found[0]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int nearestWall(int x, int y) {
+        int[] best = {-1};
+        double[] bestDistance = {Double.MAX_VALUE};
+        long limit = wallIndex.extent() + Math.max(Math.abs((long) x - minX), Math.abs((long) y - minY)) + CELL_SIZE;
+        for (long radius = CELL_SIZE; ; radius *= 2) {
+            wallIndex.query(x - radius, y - radius, x + radius, y + radius, w -> {
+                double distance = distanceToWall(w, x, y);
+                if (distance < bestDistance[0] || (distance == bestDistance[0] && w < best[0])) {
+                    bestDistance[0] = distance;
+                    best[0] = w;
+                }
+            });
+            if (bestDistance[0] <= radius || radius > limit) {
+                return best[0];
+            }
+        }
+    }
+
+    private int[] doorOn(int wall, int x, int y) {
+        int o = wall * 4;
+        double ax = walls[o];
+        double ay = walls[o + 1];
+        double bx = walls[o + 2];
+        double by = walls[o + 3];
+        if (bx < ax || (bx == ax && by < ay)) {
+            double tx = ax;
+            double ty = ay;
+            ax = bx;
+            ay = by;
+            bx = tx;
+            by = ty;
+        }
+
+        double length = Math.hypot(bx - ax, by - ay);
+        double ux = length == 0 ? 1 : (bx - ax) / length;
+        double uy = length == 0 ? 0 : (by - ay) / length;
+        double width = Math.min(DOOR_WIDTH, Math.max(length, 1));
+        double along = (x - ax) * ux + (y - ay) * uy;
+        double start = Math.clamp(along - width / 2, 0, Math.max(0, length - width));
+
+        double sx = ax + ux * start;
+        double sy = ay + uy * start;
+        double ex = sx + ux * width;
+        double ey = sy + uy * width;
+        double nx = -uy * DOOR_THICKNESS / 2.0;
+        double ny = ux * DOOR_THICKNESS / 2.0;
+
+        return new int[] {
+                round(sx - nx), round(sy - ny),
+                round(ex - nx), round(ey - ny),
+                round(ex + nx), round(ey + ny),
+                round(sx + nx), round(sy + ny)
+        };
+    }
+
+    private void appendDoor(int[] bbox) {
+        if ((doorCount + 1) * 8 > doors.length) {
+            doors = Arrays.copyOf(doors, Math.max(16, doors.length * 2));
+        }
+        System.arraycopy(bbox, 0, doors, doorCount * 8, 8);
+        indexDoor(doorCount++);
+    }
+
+    private void indexDoor(int d) {
+        int[] box = doorBounds(d);
+        doorIndex.add(d, box[0], box[1], box[2], box[3]);
+    }
+
+    private double distanceToDoor(int d, int x, int y) {
+        int[] box = doorBounds(d);
+        int dx = Math.max(0, Math.max(box[0] - x, x - box[2]));
+        int dy = Math.max(0, Math.max(box[1] - y, y - box[3]));
+        return Math.hypot(dx, dy);
+    }
+
+    private int[] doorBounds(int d) {
+        int[] box = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        int o = d * 8;
+        for (int i = 0; i < 8; i += 2) {
+            include(box, doors[o + i], doors[o + i + 1]);
+        }
+        return box;
+    }
+
+    private double distanceToWall(int w, int x, int y) {
+        int o = w * 4;
+        double ax = walls[o];
+        double ay = walls[o + 1];
+        double dx = walls[o + 2] - ax;
+        double dy = walls[o + 3] - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.clamp(((x - ax) * dx + (y - ay) * dy) / lengthSquared, 0, 1);
+        return Math.hypot(x - (ax + t * dx), y - (ay + t * dy));
+    }
+
+    private double wallLength(int w) {
+        int o = w * 4;
+        return Math.hypot(walls[o + 2] - walls[o], walls[o + 3] - walls[o + 1]);
+    }
+
+    private boolean isExterior(int w) {
+        int o = w * 4;
+        int x1 = walls[o];
+        int y1 = walls[o + 1];
+        int x2 = walls[o + 2];
+        int y2 = walls[o + 3];
+        return (near(x1, minX) && near(x2, minX)) || (near(x1, maxX) && near(x2, maxX))
+                || (near(y1, minY) && near(y2, minY)) || (near(y1, maxY) && near(y2, maxY));
+    }
+
+    private int centroid(int[] values, int room) {
+        long sum = 0;
+        for (int p = roomOffsets[room]; p < roomOffsets[room + 1]; p++) {
+            sum += values[p];
+        }
+        return (int) Math.round((double) sum / (roomOffsets[room + 1] - roomOffsets[room]));
+    }
+
+    private static boolean near(int value, int edge) {
+        return Math.abs(value - edge) <= EXTERIOR_TOLERANCE;
+    }
+
+    private static int round(double value) {
+        return (int) Math.round(value);
+    }
+
+    private static void include(int[] bounds, int[] points) {
+        for (int i = 0; i + 1 < points.length; i += 2) {
+            include(bounds, points[i], points[i + 1]);
+        }
+    }
+
+    private static void include(int[] bounds, int x, int y) {
+        bounds[0] = Math.min(bounds[0], x);
+        bounds[1] = Math.min(bounds[1], y);
+        bounds[2] = Math.max(bounds[2], x);
+        bounds[3] = Math.max(bounds[3], y);
+    }
+}
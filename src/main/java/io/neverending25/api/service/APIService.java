@@ -1,204 +1,277 @@
 package io.neverending25.api.service;
 
+import io.neverending25.api.cache.ParseCache;
+import io.neverending25.api.cache.PlanCanonicalizer;
+import io.neverending25.api.cache.ValidationCache;
+import io.neverending25.api.cache.ValidationStore;
+import io.neverending25.api.client.Base64FormResource;
 import io.neverending25.api.client.ParserClient;
+import io.neverending25.api.dto.FloorPlan;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.json.JsonReadFeature;
+import tools.jackson.core.type.TypeReference;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class APIService {
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+    private static final TypeReference<FloorPlan> FLOOR_PLAN = new TypeReference<>() {};
+
     private final ParserClient parserClient;
     private final ObjectMapper objectMapper;
-    private final PlanService planService;
+    private final PlanWriteBehind planWriteBehind;
+    private final ParseCache parseCache;
+    private final ImagePreprocessor imagePreprocessor;
+    private final LlmService llmService;
+    private final GeometryService geometryService;
+
+    private final PlanCanonicalizer planCanonicalizer;
+    private final ValidationCache validationCache;
+    private final ValidationStore validationStore;
+    private final CompactPlanCodec compactPlanCodec;
+    private final LlmAdmissionController llmAdmissionController;
+    private final StageTimer stageTimer;
+
+    @Value("${plan.enhancement.llm}")
+    private boolean llmEnhancement;
+    @Value("${llm.prompt.compact}")
+    private boolean compactPrompts;
+    @Value("${validation.cache.version}")
+    private String validationCacheVersion;
+
+    private String promptFingerprint;
+
+    @PostConstruct
+    void init() {
+        String fingerprint = String.join("\n", LlmPrompts.ENHANCE_SYSTEM, LlmPrompts.ENHANCE_COMPACT_SYSTEM,
+                LlmPrompts.VALIDATE_SYSTEM, LlmPrompts.VALIDATE_COMPACT_SYSTEM, LlmPrompts.PLAN_PROMPT,
+                llmService.getModel(),
+                String.valueOf(llmEnhancement), String.valueOf(compactPrompts), validationCacheVersion);
+        promptFingerprint = HexFormat.of().formatHex(
+                ParseCache.newDigest().digest(fingerprint.getBytes(StandardCharsets.UTF_8)));
+    }
 
-    public Map<String, Object> parse(Map<String, Object> body) {
+    public FloorPlan parse(Map<String, Object> body) {
+        if (body.get("image") instanceof byte[] image) {
+            return parse(parseCache.keyOf(image), () -> imagePreprocessor.prepare(image),
+                    () -> parserClient.parse(formBodyOf(image)));
+        }
         String imageBase64 = body.get("image").toString();
-        return parserClient.parse(imageBase64);
+        return parse(parseCache.keyOf(imageBase64), () -> {
+            try {
+                return imagePreprocessor.prepare(Base64.getMimeDecoder().decode(imageBase64));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }, () -> parserClient.parse(imageBase64));
+    }
+
+    public FloorPlan parse(InputStream image) throws IOException {
+        Path spool = Files.createTempFile("floorplan-", ".upload");
+        try {
+            MessageDigest digest = ParseCache.newDigest();
+            try (InputStream in = new DigestInputStream(image, digest)) {
+                Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return parse(HexFormat.of().formatHex(digest.digest()), spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    public FloorPlan parse(Path image) throws IOException {
+        MessageDigest digest = ParseCache.newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(image), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return parse(HexFormat.of().formatHex(digest.digest()), image);
+    }
+
+    private FloorPlan parse(String key, Path image) {
+        return parse(key, () -> {
+            try {
+                return imagePreprocessor.prepare(image);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, () -> parserClient.parse(formBodyOf(image)));
+    }
+
+    private FloorPlan parse(String key, Supplier<ImagePreprocessor.Prepared> preprocess,
+                            Supplier<FloorPlan> unprocessed) {
+        return stageTimer.time("parse", () -> parseCache.get(key, () -> {
+            ImagePreprocessor.Prepared prepared = stageTimer.time("preprocess", preprocess);
+            if (prepared == null) {
+                return unprocessed.get();
+            }
+            FloorPlan similar = parseCache.similar(prepared.hash(), prepared.originalWidth(),
+                    prepared.originalHeight());
+            if (similar != null) {
+                return similar;
+            }
+
+            FloorPlan parsed = prepared.bytes() == null
+                    ? unprocessed.get()
+                    : parserClient.parse(formBodyOf(prepared.bytes()));
+            if (parsed == null) {
+                return null;
+            }
+            if (prepared.width() != prepared.originalWidth() || prepared.height() != prepared.originalHeight()) {
+                parsed = parsed.scaled(prepared.scaleX(), prepared.scaleY());
+            }
+            parseCache.index(key, prepared.hash(), prepared.originalWidth(), prepared.originalHeight(), parsed);
+            return parsed;
+        }));
+    }
+
+    private Resource formBodyOf(Path image) {
+        return new Base64FormResource("file", () -> Files.newInputStream(image));
     }
 
-    public Map<String, Object> sendPlanToLlama(Map<String, Object> currentPlan) {
+    private Resource formBodyOf(byte[] image) {
+        return new Base64FormResource("file", () -> new ByteArrayInputStream(image));
+    }
+
+    public Map<String, Object> parseCacheStats() {
+        return parseCache.stats();
+    }
+
+    public FloorPlan sendPlanToLlama(FloorPlan currentPlan) {
+        return sendPlanToLlama(currentPlan, LlmProgressListener.NONE);
+    }
+
+    public FloorPlan sendPlanToLlama(FloorPlan currentPlan, LlmProgressListener listener) {
+        return sendPlanToLlama(currentPlan, null, listener);
+    }
+
+    private FloorPlan sendPlanToLlama(FloorPlan currentPlan, String affinity, LlmProgressListener listener) {
+        listener.stage("enhance");
+        return stageTimer.time("enhance", () -> enhance(currentPlan, affinity, listener));
+    }
+
+    private FloorPlan enhance(FloorPlan currentPlan, String affinity, LlmProgressListener listener) {
+        if (!llmEnhancement) {
+            return geometryService.enhance(currentPlan);
+        }
+
+        if (compactPrompts) {
+            String prompt = String.format(LlmPrompts.PLAN_PROMPT, compactPlanCodec.encode(currentPlan));
+            Map<String, Object> output = sendToLlama(LlmPrompts.ENHANCE_COMPACT_SYSTEM, prompt, affinity, listener,
+                    JSON_OBJECT);
+            return LlmJsonExtractor.enhancement(currentPlan, compactPlanCodec.decodeEnhancement(currentPlan, output));
+        }
+
         String planJson = objectMapper.writeValueAsString(currentPlan);
+        String prompt = String.format(LlmPrompts.PLAN_PROMPT, planJson);
+        return LlmJsonExtractor.enhancement(currentPlan,
+                sendToLlama(LlmPrompts.ENHANCE_SYSTEM, prompt, affinity, listener, FLOOR_PLAN));
+    }
 
-        String prompt = String.format("""
-You are a floor plan analyzer that enhances architectural plans.
-
-INPUT FLOOR PLAN:
-%s
-
-YOUR TASK:
-1. Preserve ALL existing data (walls, rooms, area, perimeter) - DO NOT modify anything
-2. Analyze room connectivity: identify rooms that have no door access
-3. Add NEW doors for EVERY room that is isolated (has no adjacent door)
-4. Identify load-bearing walls (longest structural walls, typically >100 units)
-
-DOOR PLACEMENT ALGORITHM:
-- For each room in the rooms array, check if there's a door nearby in the doors array
-- If no door exists within 50 units of room coordinates, the room is isolated
-- Add a door in the closest wall segment to that room
-- Door dimensions: width 20-35 units, height 6-10 units
-- Door format: {"bbox": [[x1,y1],[x2,y2],[x3,y3],[x4,y4]]} where points form a rectangle
-
-LOAD-BEARING WALL CRITERIA:
-- Walls with length > 100 units
-- Exterior perimeter walls
-- Long vertical or horizontal structural walls
-- Select 4-6 walls total
-
-REQUIRED OUTPUT STRUCTURE:
-{
-  "walls": [...exact copy from input...],
-  "doors": [...existing doors + new doors for ALL isolated rooms...],
-  "rooms": [...exact copy from input...],
-  "area": 157212,
-  "perimeter": 6753.35,
-  "load_bearing_walls": [
-    {"position": [[x1,y1],[x2,y2]]},
-    {"position": [[x3,y3],[x4,y4]]},
-    ...4-6 walls total...
-  ]
-}
-
-CRITICAL REQUIREMENTS:
-- Add doors for EVERY isolated room, not just one
-- Maintain exact JSON structure from input
-- Return only valid JSON, no additional text
-- Ensure all arrays are properly formatted (no nested arrays)
-
-EXAMPLE:
-If room at (201,251) is isolated, add door:
-{"bbox": [[210,251],[235,251],[235,257],[210,257]]}
-
-If room at (258,370) is isolated, add door:
-{"bbox": [[203,370],[228,370],[228,376],[203,376]]}
-
-Return JSON:
-""", planJson);
-
-        Map<String, Object> result = sendToLlama(prompt);
-
-        if (result.get("valid").equals("true")) {
-            planService.createPlan(currentPlan);
+    public Map<String, Object> validatePlanViaLlama(FloorPlan plan) {
+        return validatePlanViaLlama(plan, LlmProgressListener.NONE);
+    }
+
+    public Map<String, Object> validatePlanViaLlama(FloorPlan plan, LlmProgressListener listener) {
+        String key = validationId(plan);
+        Map<String, Object> result = validationCache.get(key);
+        if (result != null) {
+            listener.stage("cached");
+        } else {
+            result = validationCache.compute(key, () -> validateUncached(key, plan, listener),
+                    () -> listener.stage("coalesced"));
         }
 
-        return result;
+        return remember(key, plan, result);
+    }
+
+    public String validationId(FloorPlan plan) {
+        return planCanonicalizer.hash(plan, promptFingerprint);
+    }
+
+    public Map<String, Object> remember(String validationId, FloorPlan plan, Map<String, Object> result) {
+        validationStore.put(validationId, plan, result);
+        Map<String, Object> identified = new LinkedHashMap<>(result);
+        identified.put("validation_id", validationId);
+        return identified;
+    }
+
+    public Map<String, Object> validationCacheStats() {
+        return validationCache.stats();
+    }
+
+    public Map<String, Object> llmAdmissionStats() {
+        return llmAdmissionController.stats();
+    }
+
+    public Map<String, Object> llmNodeStats() {
+        return llmService.nodeStats();
+    }
+
+    private Map<String, Object> validateUncached(String key, FloorPlan plan, LlmProgressListener listener) {
+        FloorPlan enhanced = sendPlanToLlama(plan, key, listener);
+        listener.stage("validate");
+        Map<String, Object> validation = stageTimer.time("validate", () -> validate(enhanced, key, listener));
+
+        if ("true".equals(String.valueOf(validation.get("valid")))) {
+            stageTimer.time("persist", () -> {
+                planWriteBehind.submit(plan);
+                return null;
+            });
+        }
+
+        return validation;
     }
 
-    public Map<String, Object> validatePlanViaLlama(Map<String, Object> body) {
-        Map<String, Object> result = sendPlanToLlama(body);
-        String planJson = objectMapper.writeValueAsString(result);
-
-        String prompt = String.format("""
-You are a building code compliance validator for Russian Federation (ЖК РФ).
-
-INPUT FLOOR PLAN:
-%s
-
-VALIDATION CHECKLIST:
-1. Room Accessibility: Can all rooms be reached via doors?
-2. Fire Safety: Are there adequate emergency exits?
-3. Circulation: Is there a proper corridor/hallway system?
-4. Sanitary Access: Are bathrooms/toilets accessible?
-5. Building Code: Does layout comply with ЖК РФ standards?
-
-ANALYSIS METHOD:
-- Check each room in rooms array
-- Verify door exists near room coordinates (within 50 units)
-- Identify any isolated/blocked rooms
-- Check structural integrity
-- Verify minimum room dimensions
-
-OUTPUT FORMAT:
-{
-  "valid": false,
-  "issues": [
-    {
-      "description": "Room 5 at coordinates (258,370) is isolated with no door access",
-      "location": [[258,370],[258,407]]
-    },
-    {
-      "description": "Room 16 at coordinates (201,251) has no connecting door to main corridor",
-      "location": [[201,251],[258,303]]
-    }
-  ],
-  "good": [
-    {
-      "description": "Main entrance properly positioned with adequate width",
-      "location": [[102,40],[137,51]]
-    },
-    {
-      "description": "Central corridor provides access to multiple rooms",
-      "location": null
-    }
-  ],
-  "suggestions": [
-    {
-      "description": "Add 90cm door from main corridor to Room 5 for accessibility",
-      "move_door": {
-        "from": null,
-        "to": [[203,370],[228,370]]
-      },
-      "remove_wall": null
-    },
-    {
-      "description": "Install door between corridor and Room 16 at wall segment",
-      "move_door": {
-        "from": null,
-        "to": [[210,251],[235,251]]
-      },
-      "remove_wall": null
-    },
-    {
-      "description": "Consider removing non-load-bearing wall to improve circulation",
-      "move_door": null,
-      "remove_wall": {
-        "position": [[226,251],[258,251]]
-      }
-    }
-  ]
-}
-
-VALIDATION RULES:
-- valid: false if ANY critical issues found (isolated rooms, code violations)
-- valid: true only if all rooms accessible and code-compliant
-- issues: list ALL problems with specific coordinates
-- good: list positive aspects (minimum 1-2 items even if issues exist)
-- suggestions: provide actionable fixes with exact coordinates
-- All coordinate arrays must be [[x1,y1],[x2,y2]] format
-- move_door/remove_wall can be null if not applicable
-
-RESPONSE REQUIREMENTS:
-- Return ONLY valid JSON
-- Include at least 1-2 items in each array (issues, good, suggestions)
-- Provide specific coordinates when possible
-- Be detailed in descriptions (mention room numbers, dimensions)
-- Prioritize accessibility and safety issues
-
-Return JSON:
-""", planJson);
-
-        return sendToLlama(prompt);
+    private Map<String, Object> validate(FloorPlan enhanced, String affinity, LlmProgressListener listener) {
+        String planJson = compactPrompts
+                ? compactPlanCodec.encode(enhanced)
+                : objectMapper.writeValueAsString(enhanced);
+
+        String system = compactPrompts ? LlmPrompts.VALIDATE_COMPACT_SYSTEM : LlmPrompts.VALIDATE_SYSTEM;
+        String prompt = String.format(LlmPrompts.PLAN_PROMPT, planJson);
+
+        Map<String, Object> validation = LlmJsonExtractor.validation(
+                sendToLlama(system, prompt, affinity, listener, JSON_OBJECT));
+        if (compactPrompts) {
+            validation = compactPlanCodec.decodeValidation(enhanced, validation);
+        }
+        return validation;
     }
 
     public Map<String, Object> llm(Map<String, Object> body) {
-        String prompt = body.get("prompt").toString();
+        return llm(body, LlmProgressListener.NONE);
+    }
 
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "llama3");
-        requestBody.put("prompt", prompt);
-        requestBody.put("stream", false);
-        requestBody.put("options", Map.of("temperature", 0));
+    public Map<String, Object> llm(Map<String, Object> body, LlmProgressListener listener) {
+        String prompt = body.get("prompt").toString();
 
-        RestTemplate restTemplate = new RestTemplate();
-        Map<String, Object> response = restTemplate.postForObject(
-                "http://localhost:11434/api/generate",
-                requestBody,
-                Map.class
-        );
+        Map<String, Object> response = generate(prompt, false, LlmPriority.INTERACTIVE, listener);
 
         String responseText = (String) response.get("response");
 
@@ -207,31 +280,38 @@ Return JSON:
         return result;
     }
 
-    private Map<String, Object> sendToLlama(String prompt) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "llama3");
-        requestBody.put("prompt", prompt);
-        requestBody.put("options", Map.of("temperature", 0));
-        requestBody.put("format", "json");
-        requestBody.put("stream", false);
-
-        RestTemplate restTemplate = new RestTemplate();
-        Map<String, Object> response = restTemplate.postForObject(
-                "http://localhost:11434/api/generate",
-                requestBody,
-                Map.class
-        );
-
-        String responseText = (String) response.get("response");
-
-        int start = responseText.indexOf("{");
-        int end = responseText.lastIndexOf("}");
-        if (start != -1 && end != -1 && end > start) {
-            responseText = responseText.substring(start, end + 1);
+    private Map<String, Object> generate(String prompt, boolean jsonFormat, LlmPriority priority,
+                                         LlmProgressListener listener) {
+        if (listener == LlmProgressListener.NONE) {
+            return llmService.generate(prompt, jsonFormat, priority);
         }
+        return llmService.stream(prompt, jsonFormat, priority, listener::token);
+    }
 
-        Map<String, Object> llamaJson = objectMapper.readValue(responseText, Map.class);
-
-        return llamaJson;
+    private <T> T sendToLlama(String system, String prompt, String affinity, LlmProgressListener listener,
+                              TypeReference<T> type) {
+        LlmJsonExtractor extractor = new LlmJsonExtractor();
+        llmService.stream(system, prompt, true, LlmPriority.BATCH, affinity, token -> {
+            extractor.accept(token);
+            listener.token(token);
+        }, extractor::isComplete);
+
+        return stageTimer.time("extract", () -> {
+            String json = extractor.json();
+            if (json == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "LLM response contained no JSON object");
+            }
+            try {
+                return objectMapper.readerFor(type)
+                        .with(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+                        .with(JsonReadFeature.ALLOW_UNQUOTED_PROPERTY_NAMES)
+                        .with(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+                        .with(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+                        .readValue(json);
+            } catch (JacksonException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                        "LLM returned malformed JSON: " + e.getOriginalMessage(), e);
+            }
+        });
     }
 }
\ No newline at end of file
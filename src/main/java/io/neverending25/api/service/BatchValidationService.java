@@ -0,0 +1,118 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.config.ServerTiming;
+import io.neverending25.api.dto.FloorPlan;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchValidationService {
+    private final APIService apiService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${validation.batch.parallelism}")
+    private int parallelism;
+    @Getter
+    @Value("${validation.batch.timeout}")
+    private Duration timeout;
+
+    public StreamingResponseBody validate(InputStream plans) {
+        return out -> {
+            Semaphore permits = new Semaphore(parallelism);
+            AtomicBoolean aborted = new AtomicBoolean();
+            Lock writes = new ReentrantLock();
+            int index = 0;
+            try (MappingIterator<FloorPlan> iterator = objectMapper.readerFor(FloorPlan.class).readValues(plans)) {
+                while (!aborted.get()) {
+                    permits.acquire();
+                    FloorPlan plan;
+                    try {
+                        if (!iterator.hasNextValue()) {
+                            permits.release();
+                            break;
+                        }
+                        plan = iterator.nextValue();
+                    } catch (RuntimeException e) {
+                        permits.release();
+                        writeLine(out, writes, line(index, "error", "Malformed plan: " + e.getMessage()), aborted);
+                        break;
+                    }
+
+                    int planIndex = index++;
+                    virtualThreadExecutor.execute(() -> {
+                        try {
+                            if (!aborted.get()) {
+                                Map<String, Long> timings = new LinkedHashMap<>();
+                                Map<String, Object> result = ServerTiming.collect(timings,
+                                        () -> apiService.validatePlanViaLlama(plan));
+                                Map<String, Object> line = line(planIndex, "result", result);
+                                String timing = ServerTiming.format(timings);
+                                if (timing != null) {
+                                    line.put("serverTiming", timing);
+                                }
+                                writeLine(out, writes, line, aborted);
+                            }
+                        } catch (Exception e) {
+                            log.warn("Batch validation of plan {} failed", planIndex, e);
+                            writeLine(out, writes, line(planIndex, "error", e.getMessage()), aborted);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                permits.acquire(parallelism);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aborted.set(true);
+                throw new InterruptedIOException("Batch validation interrupted");
+            }
+        };
+    }
+
+    private static Map<String, Object> line(int index, String key, Object value) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("index", index);
+        line.put(key, value);
+        return line;
+    }
+
+    private void writeLine(OutputStream out, Lock writes, Map<String, Object> line, AtomicBoolean aborted) {
+        byte[] json = objectMapper.writeValueAsBytes(line);
+        writes.lock();
+        try {
+            if (aborted.get()) {
+                return;
+            }
+            out.write(json);
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            log.debug("Batch validation client went away", e);
+            aborted.set(true);
+        } finally {
+            writes.unlock();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class CompactPlanCodec {
+    private final ObjectMapper objectMapper;
+
+    public String encode(FloorPlan plan) {
+        int[] walls = plan.getWalls();
+        Map<Long, Integer> vertexIds = new HashMap<>();
+        int[] vertices = new int[walls.length];
+        int[] wallVertices = new int[walls.length / 2];
+        int vertexCount = 0;
+        for (int i = 0; i < wallVertices.length; i++) {
+            long key = ((long) walls[i * 2] << 32) | (walls[i * 2 + 1] & 0xffffffffL);
+            Integer id = vertexIds.get(key);
+            if (id == null) {
+                id = vertexCount++;
+                vertexIds.put(key, id);
+                vertices[id * 2] = walls[i * 2];
+                vertices[id * 2 + 1] = walls[i * 2 + 1];
+            }
+            wallVertices[i] = id;
+        }
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeName("v");
+            gen.writeStartArray();
+            for (int v = 0; v < vertexCount; v++) {
+                gen.writeArray(vertices, v * 2, 2);
+            }
+            gen.writeEndArray();
+
+            gen.writeName("w");
+            gen.writeStartArray();
+            for (int w = 0; w < wallVertices.length; w += 2) {
+                gen.writeArray(wallVertices, w, 2);
+            }
+            gen.writeEndArray();
+
+            gen.writeName("d");
+            gen.writeStartArray();
+            for (int d = 0; d < plan.doorCount(); d++) {
+                gen.writeArray(doorCorners(plan.getDoors(), d * FloorPlan.DOOR_STRIDE), 0, 4);
+            }
+            gen.writeEndArray();
+
+            gen.writeName("r");
+            gen.writeStartArray();
+            for (int r = 0; r < plan.roomCount(); r++) {
+                writeRoom(gen, plan, r);
+            }
+            gen.writeEndArray();
+
+            if (!Double.isNaN(plan.getArea())) {
+                gen.writeName("a");
+                gen.writeNumber(Math.round(plan.getArea()));
+            }
+            if (!Double.isNaN(plan.getPerimeter())) {
+                gen.writeName("p");
+                gen.writeNumber(Math.round(plan.getPerimeter()));
+            }
+            if (plan.getLoadBearingWalls() != null) {
+                gen.writeName("lb");
+                gen.writeStartArray();
+                for (int index : wallIndices(walls, plan.getLoadBearingWalls())) {
+                    gen.writeNumber(index);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    public FloorPlan decodeEnhancement(FloorPlan original, Map<String, Object> output) {
+        List<?> newDoors = list(output.get("doors"));
+        int[] doors = Arrays.copyOf(original.getDoors(), original.getDoors().length + newDoors.size() * FloorPlan.DOOR_STRIDE);
+        int offset = original.getDoors().length;
+        for (Object door : newDoors) {
+            List<?> corners = flatten(door);
+            if (corners.size() < 4) {
+                continue;
+            }
+            int x1 = intValue(corners.get(0));
+            int y1 = intValue(corners.get(1));
+            int x2 = intValue(corners.get(corners.size() >= 8 ? 4 : 2));
+            int y2 = intValue(corners.get(corners.size() >= 8 ? 5 : 3));
+            int[] bbox = {x1, y1, x2, y1, x2, y2, x1, y2};
+            System.arraycopy(bbox, 0, doors, offset, bbox.length);
+            offset += bbox.length;
+        }
+
+        List<Integer> loadBearing = new ArrayList<>();
+        for (Object wall : list(output.get("load_bearing_walls"))) {
+            int index = wallReference(wall);
+            if (index >= 0 && index < original.wallCount()) {
+                loadBearing.add(index);
+            }
+        }
+
+        FloorPlan enhanced = original.copy();
+        enhanced.setDoors(Arrays.copyOf(doors, offset));
+        enhanced.setLoadBearingWalls(wallCoordinates(original, loadBearing));
+        return enhanced;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decodeValidation(FloorPlan plan, Map<String, Object> validation) {
+        return (Map<String, Object>) resolveWalls(plan, validation);
+    }
+
+    private Object resolveWalls(FloorPlan plan, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> resolved = new LinkedHashMap<>();
+            map.forEach((key, item) -> resolved.put(String.valueOf(key), resolveWalls(plan, item)));
+            if (resolved.get("wall") instanceof Number number && !resolved.containsKey("position")) {
+                int index = number.intValue();
+                if (index >= 0 && index < plan.wallCount()) {
+                    resolved.remove("wall");
+                    int o = index * FloorPlan.WALL_STRIDE;
+                    int[] walls = plan.getWalls();
+                    resolved.put("position", List.of(List.of(walls[o], walls[o + 1]), List.of(walls[o + 2], walls[o + 3])));
+                }
+            }
+            return resolved;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> resolved = new ArrayList<>(list.size());
+            list.forEach(item -> resolved.add(resolveWalls(plan, item)));
+            return resolved;
+        }
+        return value;
+    }
+
+    private static void writeRoom(JsonGenerator gen, FloorPlan plan, int room) {
+        int[] offsets = plan.getRoomOffsets();
+        gen.writeStartArray();
+        gen.writeString(offsets[room] < offsets[room + 1] ? plan.getRoomIds()[offsets[room]] : null);
+        int previousX = Integer.MIN_VALUE;
+        int previousY = Integer.MIN_VALUE;
+        for (int p = offsets[room]; p < offsets[room + 1]; p++) {
+            int x = plan.getRoomXs()[p];
+            int y = plan.getRoomYs()[p];
+            if (x != previousX || y != previousY) {
+                gen.writeNumber(x);
+                gen.writeNumber(y);
+                previousX = x;
+                previousY = y;
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    private static int[] doorCorners(int[] doors, int offset) {
+        int[] corners = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (int i = 0; i < FloorPlan.DOOR_STRIDE; i += 2) {
+            corners[0] = Math.min(corners[0], doors[offset + i]);
+            corners[1] = Math.min(corners[1], doors[offset + i + 1]);
+            corners[2] = Math.max(corners[2], doors[offset + i]);
+            corners[3] = Math.max(corners[3], doors[offset + i + 1]);
+        }
+        return corners;
+    }
+
+    private static List<Integer> wallIndices(int[] walls, int[] segments) {
+        List<Integer> indices = new ArrayList<>();
+        for (int s = 0; s < segments.length; s += FloorPlan.WALL_STRIDE) {
+            for (int w = 0; w < walls.length; w += FloorPlan.WALL_STRIDE) {
+                if (Arrays.equals(walls, w, w + FloorPlan.WALL_STRIDE, segments, s, s + FloorPlan.WALL_STRIDE)) {
+                    indices.add(w / FloorPlan.WALL_STRIDE);
+                    break;
+                }
+            }
+        }
+        return indices;
+    }
+
+    private static int[] wallCoordinates(FloorPlan plan, List<Integer> indices) {
+        int[] coordinates = new int[indices.size() * FloorPlan.WALL_STRIDE];
+        for (int i = 0; i < indices.size(); i++) {
+            System.arraycopy(plan.getWalls(), indices.get(i) * FloorPlan.WALL_STRIDE,
+                    coordinates, i * FloorPlan.WALL_STRIDE, FloorPlan.WALL_STRIDE);
+        }
+        return coordinates;
+    }
+
+    private static int wallReference(Object wall) {
+        if (wall instanceof Number number) {
+            return number.intValue();
+        }
+        if (wall instanceof Map<?, ?> map && map.get("wall") instanceof Number number) {
+            return number.intValue();
+        }
+        return -1;
+    }
+
+    private static List<?> flatten(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return flatten(map.get("bbox"));
+        }
+        List<Object> flat = new ArrayList<>();
+        for (Object item : list(value)) {
+            if (item instanceof List<?> nested) {
+                flat.addAll(nested);
+            } else {
+                flat.add(item);
+            }
+        }
+        return flat;
+    }
+
+    private static List<?> list(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number number ? (int) Math.round(number.doubleValue()) : 0;
+    }
+}
@@ -0,0 +1,288 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.cache.ValidationStore;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.PlanDelta;
+import io.neverending25.api.geometry.PlanGeometry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class DeltaValidationService {
+    private static final String SOURCE = "source";
+    private static final String GEOMETRY = "geometry";
+
+    private final APIService apiService;
+    private final ValidationStore validationStore;
+    private final PlanWriteBehind planWriteBehind;
+    private final StageTimer stageTimer;
+
+    public Map<String, Object> validate(String validationId, PlanDelta delta) {
+        ValidationStore.Entry previous = validationStore.get(validationId);
+        if (previous == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Validation not found: " + validationId);
+        }
+        return stageTimer.time("delta", () -> revalidate(previous, delta));
+    }
+
+    private Map<String, Object> revalidate(ValidationStore.Entry previous, PlanDelta delta) {
+        List<int[]> regions = new ArrayList<>();
+        FloorPlan plan = previous.plan().copy();
+        plan.setWalls(patch(plan.getWalls(), FloorPlan.WALL_STRIDE, delta.getRemovedWalls(),
+                delta.getAddedWalls(), delta.getMovedWalls(), regions, "wall"));
+        plan.setDoors(patch(plan.getDoors(), FloorPlan.DOOR_STRIDE, delta.getRemovedDoors(),
+                delta.getAddedDoors(), delta.getMovedDoors(), regions, "door"));
+        plan.setLoadBearingWalls(null);
+
+        PlanGeometry geometry = GeometryService.geometryOf(plan);
+        boolean[] affected = new boolean[plan.roomCount()];
+        for (int[] region : regions) {
+            for (int room : geometry.roomsIntersecting(region[0], region[1], region[2], region[3])) {
+                affected[room] = true;
+            }
+        }
+        for (int room = 0; room < affected.length; room++) {
+            if (affected[room]) {
+                include(regions, geometry.roomBounds(room));
+            }
+        }
+
+        Map<String, Object> prior = previous.result();
+        List<Object> issues = select(prior.get("issues"), regions, false);
+        List<Object> good = select(prior.get("good"), regions, false);
+        List<Object> suggestions = select(prior.get("suggestions"), regions, false);
+        List<Object> unverified = select(prior.get("issues"), regions, true);
+        if (prior.get("unverified_issues") instanceof List<?> list) {
+            unverified.addAll(list);
+        }
+        List<String> revalidated = new ArrayList<>();
+        for (int room = 0; room < affected.length; room++) {
+            if (!affected[room]) {
+                continue;
+            }
+            String roomId = roomId(plan, room);
+            revalidated.add(roomId);
+            int[] bounds = geometry.roomBounds(room);
+            if (geometry.isReachable(room)) {
+                good.add(item("Room " + roomId + " has a door within " + PlanGeometry.DOOR_REACH + " units",
+                        location(bounds)));
+                continue;
+            }
+
+            issues.add(item("Room " + roomId + " at coordinates (" + bounds[0] + "," + bounds[1]
+                    + ") is isolated with no door access", location(bounds)));
+            int[] door = geometry.suggestDoor(room);
+            if (door != null) {
+                Map<String, Object> moveDoor = new LinkedHashMap<>();
+                moveDoor.put("from", null);
+                moveDoor.put("to", List.of(List.of(door[0], door[1]), List.of(door[2], door[3])));
+                Map<String, Object> suggestion = new LinkedHashMap<>();
+                suggestion.put("description", "Add door to Room " + roomId + " on the nearest wall");
+                suggestion.put("move_door", moveDoor);
+                suggestion.put("remove_wall", null);
+                suggestion.put(SOURCE, GEOMETRY);
+                suggestions.add(suggestion);
+            }
+        }
+
+        boolean valid = issues.isEmpty() && unverified.isEmpty();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("valid", valid);
+        result.put("partial", true);
+        result.put("issues", issues);
+        result.put("unverified_issues", unverified);
+        result.put("good", good);
+        result.put("suggestions", suggestions);
+        result.put("revalidated_rooms", revalidated);
+        if (valid) {
+            planWriteBehind.submit(plan);
+        }
+        return apiService.remember(apiService.validationId(plan) + "-delta", plan, result);
+    }
+
+    private static int[] patch(int[] values, int stride, List<int[][]> removed, List<int[][]> added,
+                               List<PlanDelta.Move> moved, List<int[]> regions, String kind) {
+        boolean[] dropped = new boolean[values.length / stride];
+        List<int[]> appended = new ArrayList<>();
+        for (int[][] element : removed) {
+            int[] flat = flatten(element, stride, kind);
+            drop(values, stride, dropped, flat, kind);
+            include(regions, bounds(flat));
+        }
+        for (PlanDelta.Move move : moved) {
+            int[] from = flatten(move == null ? null : move.getFrom(), stride, kind);
+            int[] to = flatten(move.getTo(), stride, kind);
+            drop(values, stride, dropped, from, kind);
+            appended.add(to);
+            include(regions, bounds(from));
+            include(regions, bounds(to));
+        }
+        for (int[][] element : added) {
+            int[] flat = flatten(element, stride, kind);
+            appended.add(flat);
+            include(regions, bounds(flat));
+        }
+
+        int kept = 0;
+        for (boolean d : dropped) {
+            if (!d) {
+                kept++;
+            }
+        }
+        int[] result = new int[(kept + appended.size()) * stride];
+        int at = 0;
+        for (int i = 0; i < dropped.length; i++) {
+            if (!dropped[i]) {
+                System.arraycopy(values, i * stride, result, at, stride);
+                at += stride;
+            }
+        }
+        for (int[] element : appended) {
+            System.arraycopy(element, 0, result, at, stride);
+            at += stride;
+        }
+        return result;
+    }
+
+    private static void drop(int[] values, int stride, boolean[] dropped, int[] element, String kind) {
+        for (int i = 0; i < dropped.length; i++) {
+            if (!dropped[i] && matches(values, i * stride, stride, element)) {
+                dropped[i] = true;
+                return;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_CONTENT,
+                "No " + kind + " at " + Arrays.toString(element) + " in the previous plan");
+    }
+
+    private static boolean matches(int[] values, int offset, int stride, int[] element) {
+        if (Arrays.equals(values, offset, offset + stride, element, 0, stride)) {
+            return true;
+        }
+        return stride == FloorPlan.WALL_STRIDE
+                && values[offset] == element[2] && values[offset + 1] == element[3]
+                && values[offset + 2] == element[0] && values[offset + 3] == element[1];
+    }
+
+    private static int[] flatten(int[][] points, int stride, String kind) {
+        if (points == null || points.length * 2 != stride) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A " + kind + " must have " + stride / 2 + " points");
+        }
+        int[] flat = new int[stride];
+        for (int i = 0; i < points.length; i++) {
+            if (points[i] == null || points[i].length != 2) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A point must be [x, y]");
+            }
+            flat[i * 2] = points[i][0];
+            flat[i * 2 + 1] = points[i][1];
+        }
+        return flat;
+    }
+
+    private static int[] bounds(int[] points) {
+        int[] box = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+        for (int i = 0; i + 1 < points.length; i += 2) {
+            box[0] = Math.min(box[0], points[i]);
+            box[1] = Math.min(box[1], points[i + 1]);
+            box[2] = Math.max(box[2], points[i]);
+            box[3] = Math.max(box[3], points[i + 1]);
+        }
+        return box;
+    }
+
+    private static void include(List<int[]> regions, int[] box) {
+        regions.add(new int[] {
+                box[0] - PlanGeometry.DOOR_REACH, box[1] - PlanGeometry.DOOR_REACH,
+                box[2] + PlanGeometry.DOOR_REACH, box[3] + PlanGeometry.DOOR_REACH
+        });
+    }
+
+    private static List<Object> select(Object items, List<int[]> regions, boolean touching) {
+        List<Object> selected = new ArrayList<>();
+        if (items instanceof List<?> list) {
+            for (Object item : list) {
+                boolean touched = touches(item, regions);
+                if (touched == touching && !(touched && isGeometric(item))) {
+                    selected.add(item);
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static boolean isGeometric(Object item) {
+        return item instanceof Map<?, ?> map && GEOMETRY.equals(map.get(SOURCE));
+    }
+
+    private static boolean touches(Object value, List<int[]> regions) {
+        if (value instanceof Map<?, ?> map) {
+            for (Object nested : map.values()) {
+                if (touches(nested, regions)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (!(value instanceof List<?> list) || list.isEmpty()) {
+            return false;
+        }
+        double[] box = pointBounds(list);
+        if (box != null) {
+            for (int[] region : regions) {
+                if (box[0] <= region[2] && box[2] >= region[0] && box[1] <= region[3] && box[3] >= region[1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Object nested : list) {
+            if (touches(nested, regions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double[] pointBounds(List<?> points) {
+        double[] box = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (Object point : points) {
+            if (!(point instanceof List<?> xy) || xy.size() != 2
+                    || !(xy.get(0) instanceof Number x) || !(xy.get(1) instanceof Number y)) {
+                return null;
+            }
+            box[0] = Math.min(box[0], x.doubleValue());
+            box[1] = Math.min(box[1], y.doubleValue());
+            box[2] = Math.max(box[2], x.doubleValue());
+            box[3] = Math.max(box[3], y.doubleValue());
+        }
+        return box;
+    }
+
+    private static Map<String, Object> item(String description, Object location) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("description", description);
+        item.put("location", location);
+        item.put(SOURCE, GEOMETRY);
+        return item;
+    }
+
+    private static List<List<Integer>> location(int[] bounds) {
+        return List.of(List.of(bounds[0], bounds[1]), List.of(bounds[2], bounds[3]));
+    }
+
+    private static String roomId(FloorPlan plan, int room) {
+        int first = plan.getRoomOffsets()[room];
+        String[] ids = plan.getRoomIds();
+        return first < ids.length && ids[first] != null ? ids[first] : String.valueOf(room);
+    }
+}
@@ -0,0 +1,42 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.geometry.PlanGeometry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+
+@Service
+public class GeometryService {
+
+    public FloorPlan enhance(FloorPlan plan) {
+        PlanGeometry geometry = geometryOf(plan);
+        int[] newDoors = geometry.addMissingDoors();
+        int[] loadBearing = geometry.loadBearingWalls();
+
+        int[] doors = Arrays.copyOf(plan.getDoors(), plan.getDoors().length + newDoors.length);
+        System.arraycopy(newDoors, 0, doors, plan.getDoors().length, newDoors.length);
+
+        int[] loadBearingWalls = new int[loadBearing.length * FloorPlan.WALL_STRIDE];
+        for (int i = 0; i < loadBearing.length; i++) {
+            System.arraycopy(plan.getWalls(), loadBearing[i] * FloorPlan.WALL_STRIDE,
+                    loadBearingWalls, i * FloorPlan.WALL_STRIDE, FloorPlan.WALL_STRIDE);
+        }
+
+        FloorPlan enhanced = plan.copy();
+        enhanced.setDoors(doors);
+        enhanced.setLoadBearingWalls(loadBearingWalls);
+        return enhanced;
+    }
+
+    static PlanGeometry geometryOf(FloorPlan plan) {
+        try {
+            return new PlanGeometry(plan.getWalls(), plan.getDoors(),
+                    plan.getRoomOffsets(), plan.getRoomXs(), plan.getRoomYs());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_CONTENT, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImagePreprocessor {
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+    private static final int EXIF_ORIENTATION = 0x0112;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${parser.preprocess.enabled}")
+    private boolean enabled;
+    @Value("${parser.preprocess.max-dimension}")
+    private int maxDimension;
+    @Value("${parser.preprocess.format}")
+    private String format;
+    @Value("${parser.preprocess.jpeg-quality}")
+    private float jpegQuality;
+
+    public record Prepared(byte[] bytes, int width, int height, int originalWidth, int originalHeight, long hash) {
+        public double scaleX() {
+            return (double) originalWidth / width;
+        }
+
+        public double scaleY() {
+            return (double) originalHeight / height;
+        }
+    }
+
+    public Prepared prepare(byte[] image) {
+        return prepare(new ByteArrayInputStream(image), image.length);
+    }
+
+    public Prepared prepare(Path image) throws IOException {
+        return prepare(image.toFile(), Files.size(image));
+    }
+
+    private Prepared prepare(Object source, long originalSize) {
+        if (!enabled) {
+            return null;
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return prepare(reader, originalSize);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Sending image to the parser unprocessed: {}", e.toString());
+            return null;
+        }
+    }
+
+    private Prepared prepare(ImageReader reader, long originalSize) throws IOException {
+        int orientation = orientation(reader);
+        boolean transposed = orientation >= 5 && orientation <= 8;
+        int storedWidth = reader.getWidth(0);
+        int storedHeight = reader.getHeight(0);
+        int width = transposed ? storedHeight : storedWidth;
+        int height = transposed ? storedWidth : storedHeight;
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        ImageReadParam param = reader.getDefaultReadParam();
+        int step = Math.max(1, (int) (1 / scale / 2));
+        param.setSourceSubsampling(step, step, 0, 0);
+        BufferedImage decoded = reader.read(0, param);
+
+        int uprightWidth = transposed ? targetHeight : targetWidth;
+        int uprightHeight = transposed ? targetWidth : targetHeight;
+        AffineTransform transform = orient(orientation, uprightWidth, uprightHeight);
+        transform.concatenate(AffineTransform.getScaleInstance(
+                (double) uprightWidth / decoded.getWidth(), (double) uprightHeight / decoded.getHeight()));
+
+        BufferedImage gray = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.drawImage(decoded, transform, null);
+        } finally {
+            g.dispose();
+        }
+
+        long hash = dHash(gray);
+        byte[] encoded = encode(gray);
+        boolean keepOriginal = scale == 1.0 && orientation == 1 && encoded.length >= originalSize;
+        recordBytes("original", originalSize);
+        recordBytes("prepared", keepOriginal ? originalSize : encoded.length);
+        return keepOriginal
+                ? new Prepared(null, width, height, width, height, hash)
+                : new Prepared(encoded, targetWidth, targetHeight, width, height, hash);
+    }
+
+    private static AffineTransform orient(int orientation, int width, int height) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> new AffineTransform();
+        };
+    }
+
+    static int orientation(ImageReader reader) throws IOException {
+        IIOMetadata metadata = reader.getImageMetadata(0);
+        if (metadata == null || !JPEG_METADATA.equals(metadata.getNativeMetadataFormatName())) {
+            return 1;
+        }
+        Node markers = metadata.getAsTree(JPEG_METADATA).getLastChild();
+        if (markers == null || !markers.getNodeName().equals("markerSequence")) {
+            return 1;
+        }
+        for (Node marker = markers.getFirstChild(); marker != null; marker = marker.getNextSibling()) {
+            if (marker instanceof IIOMetadataNode node && node.getNodeName().equals("unknown")
+                    && "225".equals(node.getAttribute("MarkerTag"))
+                    && node.getUserObject() instanceof byte[] app1) {
+                int orientation = exifOrientation(app1);
+                if (orientation > 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static int exifOrientation(byte[] app1) {
+        if (app1.length < 14 || !new String(app1, 0, 6, StandardCharsets.ISO_8859_1).equals("Exif\0\0")) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION) {
+                int orientation = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    private void recordBytes(String stage, long bytes) {
+        DistributionSummary.builder("parser.image.bytes")
+                .baseUnit("bytes")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for " + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.equalsIgnoreCase("jpeg") || format.equalsIgnoreCase("jpg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    static long dHash(BufferedImage gray) {
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        long[] sums = new long[HASH_WIDTH * HASH_HEIGHT];
+        int[] counts = new int[HASH_WIDTH * HASH_HEIGHT];
+        int[] cellOf = new int[width];
+        for (int x = 0; x < width; x++) {
+            cellOf[x] = x * HASH_WIDTH / width;
+        }
+
+        Raster raster = gray.getRaster();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(0, y, width, 1, 0, row);
+            int base = y * HASH_HEIGHT / height * HASH_WIDTH;
+            for (int x = 0; x < width; x++) {
+                sums[base + cellOf[x]] += row[x];
+                counts[base + cellOf[x]]++;
+            }
+        }
+
+        long hash = 0;
+        for (int cy = 0; cy < HASH_HEIGHT; cy++) {
+            for (int cx = 0; cx < HASH_WIDTH - 1; cx++) {
+                int left = cy * HASH_WIDTH + cx;
+                hash = hash << 1 | (average(sums, counts, left) < average(sums, counts, left + 1) ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    private static double average(long[] sums, int[] counts, int cell) {
+        return counts[cell] == 0 ? 0 : (double) sums[cell] / counts[cell];
+    }
+}
@@ -0,0 +1,222 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class LlmAdmissionController {
+    private final LlmNodePool nodePool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${llm.admission.max-concurrent}")
+    private int maxConcurrent;
+    @Value("${llm.admission.max-queue}")
+    private int maxQueue;
+    @Value("${llm.admission.max-wait}")
+    private Duration maxWait;
+    @Value("${llm.admission.retry-after}")
+    private Duration retryAfter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::sequence));
+    private int inFlight;
+    private long sequence;
+    private long admitted;
+    private long rejected;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("llm.admission.queue.depth", this, LlmAdmissionController::queueDepth)
+                .register(meterRegistry);
+        Gauge.builder("llm.admission.in.flight", this, LlmAdmissionController::inFlight)
+                .register(meterRegistry);
+    }
+
+    public <T> T call(LlmPriority priority, Supplier<T> work) {
+        acquire(priority);
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", limit());
+            stats.put("inFlight", inFlight);
+            stats.put("queueDepth", queue.size());
+            stats.put("admitted", admitted);
+            stats.put("rejected", rejected);
+            stats.put("averageWaitMs", admitted == 0 ? 0 : totalWaitNanos / admitted / 1_000_000);
+            stats.put("maxWaitMs", maxWaitNanos / 1_000_000);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(LlmPriority priority) {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (inFlight < limit() && queue.isEmpty()) {
+                inFlight++;
+                recordAdmission(priority, 0);
+                return;
+            }
+            if (queue.size() >= maxQueue) {
+                recordRejection(priority, "queue-full");
+                throw new LlmOverloadedException("LLM backend is saturated, try again later", retryAfter);
+            }
+
+            Waiter waiter = new Waiter(priority, sequence++, lock.newCondition());
+            queue.add(waiter);
+            long remaining = maxWait.toNanos();
+            while (!waiter.admitted) {
+                if (remaining <= 0) {
+                    queue.remove(waiter);
+                    recordRejection(priority, "timeout");
+                    throw new LlmOverloadedException("Timed out waiting for the LLM backend", retryAfter);
+                }
+                try {
+                    remaining = waiter.condition.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (waiter.admitted) {
+                        handOff();
+                    } else {
+                        queue.remove(waiter);
+                    }
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for the LLM backend");
+                }
+            }
+            recordAdmission(priority, System.nanoTime() - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            handOff();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onNodesChanged(LlmNodePool.NodesChanged event) {
+        lock.lock();
+        try {
+            while (inFlight < limit() && !queue.isEmpty()) {
+                inFlight++;
+                admit(queue.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int limit() {
+        return maxConcurrent * Math.max(1, nodePool.availableCount());
+    }
+
+    private void handOff() {
+        Waiter next = inFlight > limit() ? null : queue.poll();
+        if (next == null) {
+            inFlight--;
+            return;
+        }
+        admit(next);
+    }
+
+    private static void admit(Waiter waiter) {
+        waiter.admitted = true;
+        waiter.condition.signal();
+    }
+
+    private void recordAdmission(LlmPriority priority, long waitNanos) {
+        admitted++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        Timer.builder("llm.admission.wait")
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordRejection(LlmPriority priority, String reason) {
+        rejected++;
+        Counter.builder("llm.admission.rejected")
+                .tag("priority", priority.name())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static final class Waiter {
+        private final LlmPriority priority;
+        private final long sequence;
+        private final Condition condition;
+        private boolean admitted;
+
+        private Waiter(LlmPriority priority, long sequence, Condition condition) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        LlmPriority priority() {
+            return priority;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+}
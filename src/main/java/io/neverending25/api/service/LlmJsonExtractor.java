@@ -0,0 +1,319 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class LlmJsonExtractor {
+    private static final String[] VALIDATION_LISTS = {"issues", "good", "suggestions"};
+
+    private final StringBuilder json = new StringBuilder();
+    private final StringBuilder stack = new StringBuilder();
+    private boolean started;
+    private boolean complete;
+    private boolean repaired;
+    private boolean inString;
+    private boolean escaped;
+    private int keyStart = -1;
+    private int danglingKey = -1;
+
+    static String extract(String text) {
+        LlmJsonExtractor extractor = new LlmJsonExtractor();
+        extractor.accept(text);
+        String json = extractor.json();
+        return json != null ? json : text;
+    }
+
+    void accept(String token) {
+        for (int i = 0; i < token.length() && !complete; i++) {
+            accept(token.charAt(i));
+        }
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    boolean isRepaired() {
+        return repaired;
+    }
+
+    String json() {
+        if (!started) {
+            return null;
+        }
+        if (complete) {
+            return json.toString();
+        }
+
+        StringBuilder out = new StringBuilder(json);
+        StringBuilder open = new StringBuilder(stack);
+        if (inString) {
+            if (open.charAt(open.length() - 1) == 'k') {
+                out.setLength(keyStart);
+            } else {
+                if (escaped) {
+                    out.setLength(out.length() - 1);
+                }
+                out.append('"');
+            }
+        } else if (danglingKey >= 0) {
+            out.setLength(danglingKey);
+        }
+        trimIncompleteValue(out);
+        for (int i = open.length() - 1; i >= 0; i--) {
+            stripTrailingComma(out);
+            out.append(open.charAt(i) == '[' ? ']' : '}');
+        }
+        repaired = true;
+        return out.toString();
+    }
+
+    static Map<String, Object> validation(Map<String, Object> raw) {
+        Map<String, Object> result = new LinkedHashMap<>(raw);
+        for (String key : VALIDATION_LISTS) {
+            result.put(key, items(raw.get(key)));
+        }
+        Object valid = raw.get("valid");
+        if (valid instanceof Boolean) {
+            result.put("valid", valid);
+        } else if (valid instanceof String text && (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false"))) {
+            result.put("valid", Boolean.parseBoolean(text));
+        } else {
+            result.put("valid", ((List<?>) result.get("issues")).isEmpty());
+        }
+        return result;
+    }
+
+    static FloorPlan enhancement(FloorPlan input, FloorPlan output) {
+        FloorPlan checked = input.copy();
+        int[] doors = input.getDoors();
+        int[] candidates = output.getDoors();
+        int[] merged = Arrays.copyOf(doors, doors.length + candidates.length);
+        int length = doors.length;
+        for (int d = 0; d + FloorPlan.DOOR_STRIDE <= candidates.length; d += FloorPlan.DOOR_STRIDE) {
+            if (!degenerate(candidates, d) && indexOf(merged, length, FloorPlan.DOOR_STRIDE, candidates, d) < 0) {
+                System.arraycopy(candidates, d, merged, length, FloorPlan.DOOR_STRIDE);
+                length += FloorPlan.DOOR_STRIDE;
+            }
+        }
+        checked.setDoors(Arrays.copyOf(merged, length));
+
+        int[] walls = input.getWalls();
+        int[] segments = output.getLoadBearingWalls() == null ? new int[0] : output.getLoadBearingWalls();
+        int[] loadBearing = new int[segments.length];
+        length = 0;
+        for (int s = 0; s + FloorPlan.WALL_STRIDE <= segments.length; s += FloorPlan.WALL_STRIDE) {
+            int wall = wallIndex(walls, segments, s);
+            if (wall >= 0 && indexOf(loadBearing, length, FloorPlan.WALL_STRIDE, walls, wall) < 0) {
+                System.arraycopy(walls, wall, loadBearing, length, FloorPlan.WALL_STRIDE);
+                length += FloorPlan.WALL_STRIDE;
+            }
+        }
+        checked.setLoadBearingWalls(Arrays.copyOf(loadBearing, length));
+        return checked;
+    }
+
+    private static boolean degenerate(int[] doors, int d) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = d; i < d + FloorPlan.DOOR_STRIDE; i += 2) {
+            minX = Math.min(minX, doors[i]);
+            maxX = Math.max(maxX, doors[i]);
+            minY = Math.min(minY, doors[i + 1]);
+            maxY = Math.max(maxY, doors[i + 1]);
+        }
+        return minX == maxX || minY == maxY;
+    }
+
+    private static int wallIndex(int[] walls, int[] segments, int s) {
+        for (int w = 0; w + FloorPlan.WALL_STRIDE <= walls.length; w += FloorPlan.WALL_STRIDE) {
+            boolean same = Arrays.equals(walls, w, w + FloorPlan.WALL_STRIDE, segments, s, s + FloorPlan.WALL_STRIDE);
+            boolean reversed = walls[w] == segments[s + 2] && walls[w + 1] == segments[s + 3]
+                    && walls[w + 2] == segments[s] && walls[w + 3] == segments[s + 1];
+            if (same || reversed) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(int[] shapes, int length, int stride, int[] shape, int offset) {
+        for (int i = 0; i + stride <= length; i += stride) {
+            if (Arrays.equals(shapes, i, i + stride, shape, offset, offset + stride)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<Object> items(Object value) {
+        List<Object> items = new ArrayList<>();
+        if (value == null) {
+            return items;
+        }
+        for (Object item : value instanceof List<?> list ? list : List.of(value)) {
+            if (item instanceof Map<?, ?>) {
+                items.add(item);
+            } else if (item instanceof String description && !description.isBlank()) {
+                Map<String, Object> described = new LinkedHashMap<>();
+                described.put("description", description);
+                described.put("location", null);
+                items.add(described);
+            }
+        }
+        return items;
+    }
+
+    private void accept(char c) {
+        if (!started) {
+            if (c == '{') {
+                started = true;
+                json.append(c);
+                stack.append('k');
+            }
+            return;
+        }
+
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+                if (top() == 'k') {
+                    danglingKey = keyStart;
+                }
+            } else if (c == '\n' || c == '\r' || c == '\t') {
+                json.append(c == '\n' ? "\\n" : c == '\r' ? "\\r" : "\\t");
+                repaired = true;
+                return;
+            }
+            json.append(c);
+            return;
+        }
+
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                if (top() == 'k') {
+                    keyStart = json.length();
+                }
+                json.append(c);
+            }
+            case '{' -> {
+                json.append(c);
+                stack.append('k');
+            }
+            case '[' -> {
+                json.append(c);
+                stack.append('[');
+            }
+            case ':' -> {
+                json.append(c);
+                if (top() == 'k') {
+                    stack.setCharAt(stack.length() - 1, 'v');
+                    danglingKey = -1;
+                }
+            }
+            case ',' -> {
+                json.append(c);
+                if (top() == 'v') {
+                    stack.setCharAt(stack.length() - 1, 'k');
+                }
+            }
+            case '}', ']' -> close(c);
+            default -> json.append(c);
+        }
+    }
+
+    private void close(char c) {
+        char expected = c == ']' ? '[' : 'o';
+        int match = stack.length() - 1;
+        while (match >= 0 && kind(stack.charAt(match)) != expected) {
+            match--;
+        }
+        if (match < 0) {
+            repaired = true;
+            return;
+        }
+        while (stack.length() - 1 > match) {
+            stripTrailingComma(json);
+            json.append(stack.charAt(stack.length() - 1) == '[' ? ']' : '}');
+            stack.setLength(stack.length() - 1);
+            repaired = true;
+        }
+        if (stripTrailingComma(json)) {
+            repaired = true;
+        }
+        json.append(c);
+        stack.setLength(match);
+        danglingKey = -1;
+        if (stack.isEmpty()) {
+            complete = true;
+        }
+    }
+
+    private char top() {
+        return stack.isEmpty() ? 0 : stack.charAt(stack.length() - 1);
+    }
+
+    private static char kind(char open) {
+        return open == '[' ? '[' : 'o';
+    }
+
+    private static boolean stripTrailingComma(StringBuilder out) {
+        int end = out.length();
+        while (end > 0 && Character.isWhitespace(out.charAt(end - 1))) {
+            end--;
+        }
+        if (end > 0 && out.charAt(end - 1) == ',') {
+            out.setLength(end - 1);
+            return true;
+        }
+        return false;
+    }
+
+    private static void trimIncompleteValue(StringBuilder out) {
+        while (true) {
+            int end = out.length();
+            while (end > 0 && Character.isWhitespace(out.charAt(end - 1))) {
+                end--;
+            }
+            out.setLength(end);
+            if (end == 0) {
+                return;
+            }
+            char last = out.charAt(end - 1);
+            if (last == ',') {
+                out.setLength(end - 1);
+            } else if (last == ':') {
+                out.append("null");
+                return;
+            } else if (Character.isLetter(last)) {
+                int start = end;
+                while (start > 0 && Character.isLetter(out.charAt(start - 1))) {
+                    start--;
+                }
+                String word = out.substring(start, end);
+                if (word.equals("true") || word.equals("false") || word.equals("null")) {
+                    return;
+                }
+                boolean exponent = start > 0 && Character.isDigit(out.charAt(start - 1))
+                        && (word.equals("e") || word.equals("E"));
+                out.setLength(exponent ? end - 1 : start);
+            } else if (last == '.' || last == '-' || last == '+') {
+                out.setLength(end - 1);
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.neverending25.api.client.LlmClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LlmNodePool {
+    private static final double LATENCY_DECAY = 0.2;
+
+    private final CloseableHttpClient llmHttpClient;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${llm.nodes}")
+    private List<String> urls;
+    @Value("${llm.model}")
+    private String model;
+    @Value("${llm.health.interval}")
+    private Duration healthInterval;
+    @Value("${llm.health.timeout}")
+    private Duration healthTimeout;
+    @Value("${llm.health.max-failures}")
+    private int maxFailures;
+    @Value("${llm.affinity.max-imbalance}")
+    private int maxImbalance;
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final Object selection = new Object();
+    private Thread healthChecker;
+    private volatile boolean running;
+    private int lastAvailable = -1;
+
+    public record NodesChanged(int available) {
+    }
+
+    public static final class Node {
+        private final String url;
+        private final RestClient restClient;
+        private final LlmClient client;
+        private final LlmClient healthClient;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile boolean healthy = true;
+        private volatile Set<String> models;
+        private volatile double latencyMillis;
+
+        private Node(String url, RestClient restClient, LlmClient client, LlmClient healthClient) {
+            this.url = url;
+            this.restClient = restClient;
+            this.client = client;
+            this.healthClient = healthClient;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public RestClient restClient() {
+            return restClient;
+        }
+
+        public LlmClient client() {
+            return client;
+        }
+
+        private boolean serves(String model) {
+            Set<String> served = models;
+            return served == null || served.contains(model) || served.contains(model + ":latest");
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        HttpComponentsClientHttpRequestFactory healthRequestFactory =
+                new HttpComponentsClientHttpRequestFactory(llmHttpClient);
+        healthRequestFactory.setConnectionRequestTimeout(healthTimeout);
+        healthRequestFactory.setReadTimeout(healthTimeout);
+        for (String url : urls) {
+            RestClient restClient = RestClient.builder()
+                    .baseUrl(url.trim())
+                    .requestFactory(new HttpComponentsClientHttpRequestFactory(llmHttpClient))
+                    .build();
+            RestClient healthRestClient = restClient.mutate().requestFactory(healthRequestFactory).build();
+            Node node = new Node(url.trim(), restClient, createClient(restClient), createClient(healthRestClient));
+            nodes.add(node);
+            Gauge.builder("llm.node.outstanding", node, n -> n.outstanding.get())
+                    .tag("node", node.url)
+                    .register(meterRegistry);
+            Gauge.builder("llm.node.healthy", node, n -> n.healthy ? 1 : 0)
+                    .tag("node", node.url)
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startHealthChecks() {
+        running = true;
+        healthChecker = Thread.ofVirtual().name("llm-health-check").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (healthChecker != null) {
+            healthChecker.interrupt();
+            healthChecker.join(healthInterval.toMillis());
+        }
+    }
+
+    public <T> T call(String affinity, Function<Node, T> work) {
+        return execute(reserve(affinity), work);
+    }
+
+    public <T> T call(Node node, Function<Node, T> work) {
+        node.outstanding.incrementAndGet();
+        return execute(node, work);
+    }
+
+    private <T> T execute(Node node, Function<Node, T> work) {
+        node.requests.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result = work.apply(node);
+            node.consecutiveFailures.set(0);
+            double millis = (System.nanoTime() - start) / 1e6;
+            node.latencyMillis = node.latencyMillis == 0 ? millis
+                    : node.latencyMillis + LATENCY_DECAY * (millis - node.latencyMillis);
+            return result;
+        } catch (RuntimeException e) {
+            if (isNodeFailure(e)) {
+                node.failures.incrementAndGet();
+                if (node.consecutiveFailures.incrementAndGet() >= maxFailures) {
+                    mark(node, false, "failed " + maxFailures + " requests in a row: " + e.getMessage());
+                    publishIfChanged();
+                }
+            }
+            throw e;
+        } finally {
+            node.outstanding.decrementAndGet();
+        }
+    }
+
+    public List<Node> availableNodes() {
+        List<Node> available = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.healthy && node.serves(model)) {
+                available.add(node);
+            }
+        }
+        return available;
+    }
+
+    public int availableCount() {
+        int available = 0;
+        for (Node node : nodes) {
+            if (node.healthy && node.serves(model)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    public Map<String, Object> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Node node : nodes) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("url", node.url);
+            entry.put("healthy", node.healthy);
+            entry.put("models", node.models);
+            entry.put("outstanding", node.outstanding.get());
+            entry.put("requests", node.requests.get());
+            entry.put("failures", node.failures.get());
+            entry.put("latencyMs", Math.round(node.latencyMillis));
+            stats.add(entry);
+        }
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("model", model);
+        pool.put("available", availableCount());
+        pool.put("nodes", stats);
+        return pool;
+    }
+
+    private Node reserve(String affinity) {
+        List<Node> candidates = availableNodes();
+        if (candidates.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "No healthy LLM node serves model " + model);
+        }
+        synchronized (selection) {
+            Node node = select(candidates, affinity);
+            node.outstanding.incrementAndGet();
+            return node;
+        }
+    }
+
+    private Node select(List<Node> candidates, String affinity) {
+
+        Node least = candidates.getFirst();
+        for (Node node : candidates) {
+            int outstanding = node.outstanding.get();
+            int leastOutstanding = least.outstanding.get();
+            if (outstanding < leastOutstanding
+                    || outstanding == leastOutstanding && node.latencyMillis < least.latencyMillis) {
+                least = node;
+            }
+        }
+        if (affinity == null) {
+            return least;
+        }
+
+        Node preferred = null;
+        long best = Long.MIN_VALUE;
+        for (Node node : candidates) {
+            CRC32C crc = new CRC32C();
+            crc.update(affinity.getBytes(StandardCharsets.UTF_8));
+            crc.update(node.url.getBytes(StandardCharsets.UTF_8));
+            if (crc.getValue() > best) {
+                best = crc.getValue();
+                preferred = node;
+            }
+        }
+        return preferred.outstanding.get() - least.outstanding.get() <= maxImbalance ? preferred : least;
+    }
+
+    private void run() {
+        while (running) {
+            for (Node node : nodes) {
+                check(node);
+            }
+            publishIfChanged();
+            try {
+                Thread.sleep(healthInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void check(Node node) {
+        try {
+            Map<String, Object> tags = node.healthClient.tags();
+            Set<String> models = new HashSet<>();
+            if (tags.get("models") instanceof List<?> list) {
+                for (Object entry : list) {
+                    if (entry instanceof Map<?, ?> map && map.get("name") instanceof String name) {
+                        models.add(name);
+                    }
+                }
+            }
+            node.models = models;
+            node.consecutiveFailures.set(0);
+            mark(node, true, "health check passed");
+        } catch (Exception e) {
+            mark(node, false, "health check failed: " + e.getMessage());
+        }
+    }
+
+    private void mark(Node node, boolean healthy, String reason) {
+        if (node.healthy == healthy) {
+            return;
+        }
+        node.healthy = healthy;
+        if (healthy) {
+            log.info("LLM node {} re-admitted: {}", node.url, reason);
+        } else {
+            log.warn("LLM node {} ejected: {}", node.url, reason);
+        }
+    }
+
+    private synchronized void publishIfChanged() {
+        int available = availableCount();
+        if (available != lastAvailable) {
+            lastAvailable = available;
+            eventPublisher.publishEvent(new NodesChanged(available));
+        }
+    }
+
+    private static LlmClient createClient(RestClient restClient) {
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient)).build()
+                .createClient(LlmClient.class);
+    }
+
+    private static boolean isNodeFailure(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResourceAccessException || cause instanceof IOException
+                    || cause instanceof HttpServerErrorException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,6 @@
+package io.neverending25.api.service;
+
+public enum LlmPriority {
+    INTERACTIVE,
+    BATCH
+}
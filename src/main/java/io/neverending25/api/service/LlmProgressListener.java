@@ -0,0 +1,11 @@
+package io.neverending25.api.service;
+
+public interface LlmProgressListener {
+    LlmProgressListener NONE = new LlmProgressListener() {};
+
+    default void stage(String stage) {
+    }
+
+    default void token(String token) {
+    }
+}
@@ -0,0 +1,192 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.neverending25.api.config.ServerTiming;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.io.EofSensorInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LlmService {
+    private static final TypeReference<Map<String, Object>> CHUNK_TYPE = new TypeReference<>() {};
+
+    private final LlmNodePool nodePool;
+    private final ObjectMapper objectMapper;
+    private final LlmAdmissionController admissionController;
+    private final MeterRegistry meterRegistry;
+
+    @Getter
+    @Value("${llm.model}")
+    private String model;
+    @Value("${llm.keep-alive}")
+    private String keepAlive;
+
+    public Map<String, Object> generate(String prompt, boolean jsonFormat, LlmPriority priority) {
+        Map<String, Object> requestBody = requestBody(null, prompt, jsonFormat, false);
+        return admissionController.call(priority,
+                () -> recordUsage(nodePool.call((String) null, node -> node.client().generate(requestBody))));
+    }
+
+    public Map<String, Object> stream(String prompt, boolean jsonFormat, LlmPriority priority,
+                                      Consumer<String> onToken) {
+        return stream(null, prompt, jsonFormat, priority, null, onToken, () -> false);
+    }
+
+    public Map<String, Object> stream(String system, String prompt, boolean jsonFormat, LlmPriority priority,
+                                      String affinity, Consumer<String> onToken, BooleanSupplier complete) {
+        Map<String, Object> requestBody = requestBody(system, prompt, jsonFormat, true);
+        return admissionController.call(priority, () -> recordUsage(nodePool.call(affinity,
+                node -> streamAdmitted(node.restClient(), requestBody, onToken, complete))));
+    }
+
+    public void warmUp(String system) {
+        Map<String, Object> requestBody = requestBody(system, system == null ? "" : "Reply with {}.", system != null, false);
+        if (system != null) {
+            requestBody.put("options", Map.of("temperature", 0, "num_predict", 1));
+        }
+        for (LlmNodePool.Node node : nodePool.availableNodes()) {
+            try {
+                admissionController.call(LlmPriority.BATCH,
+                        () -> recordUsage(nodePool.call(node, n -> n.client().generate(requestBody))));
+            } catch (RuntimeException e) {
+                log.warn("LLM warm-up of {} failed: {}", node.url(), e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> nodeStats() {
+        return nodePool.stats();
+    }
+
+    private Map<String, Object> recordUsage(Map<String, Object> response) {
+        if (response.get("prompt_eval_count") instanceof Number tokens) {
+            meterRegistry.counter("llm.tokens", "model", model, "kind", "prompt").increment(tokens.doubleValue());
+        }
+        if (response.get("eval_count") instanceof Number tokens) {
+            meterRegistry.counter("llm.tokens", "model", model, "kind", "eval").increment(tokens.doubleValue());
+        }
+        recordDuration(response, "load_duration", "load");
+        recordDuration(response, "prompt_eval_duration", "prompt-eval");
+        recordDuration(response, "eval_duration", "eval");
+        return response;
+    }
+
+    private void recordDuration(Map<String, Object> response, String field, String phase) {
+        if (response.get(field) instanceof Number nanos) {
+            meterRegistry.timer("llm.duration", "model", model, "phase", phase)
+                    .record(nanos.longValue(), TimeUnit.NANOSECONDS);
+            ServerTiming.record("llm-" + phase, nanos.longValue());
+        }
+    }
+
+    private Map<String, Object> streamAdmitted(RestClient restClient, Map<String, Object> requestBody,
+                                               Consumer<String> onToken, BooleanSupplier complete) {
+        return restClient.post()
+                .uri("/api/generate")
+                .body(requestBody)
+                .exchange((request, response) -> {
+                    HttpStatusCode status = response.getStatusCode();
+                    if (status.isError()) {
+                        throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "LLM backend returned " + status,
+                                status.is5xxServerError() ? new HttpServerErrorException(status) : null);
+                    }
+
+                    StringBuilder text = new StringBuilder();
+                    Map<String, Object> last = Map.of();
+                    InputStream body = response.getBody();
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+                    long start = System.nanoTime();
+                    long firstToken = 0;
+                    int tokens = 0;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        Map<String, Object> chunk = objectMapper.readValue(line, CHUNK_TYPE);
+                        if (chunk.get("error") != null) {
+                            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, chunk.get("error").toString());
+                        }
+                        if (Boolean.TRUE.equals(chunk.get("done"))) {
+                            last = chunk;
+                            break;
+                        }
+                        if (chunk.get("response") instanceof String token && !token.isEmpty()) {
+                            if (tokens++ == 0) {
+                                firstToken = System.nanoTime();
+                            }
+                            text.append(token);
+                            onToken.accept(token);
+                        }
+                        if (complete.getAsBoolean()) {
+                            abort(body);
+                            last = stoppedEarly(start, firstToken, tokens);
+                            break;
+                        }
+                    }
+
+                    Map<String, Object> result = new HashMap<>(last);
+                    result.put("response", text.toString());
+                    return result;
+                });
+    }
+
+    private static void abort(InputStream body) throws IOException {
+        if (body instanceof EofSensorInputStream stream) {
+            stream.abort();
+        } else {
+            body.close();
+        }
+    }
+
+    private static Map<String, Object> stoppedEarly(long start, long firstToken, int tokens) {
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("done", true);
+        usage.put("done_reason", "stopped_early");
+        usage.put("eval_count", tokens);
+        if (tokens > 0) {
+            usage.put("prompt_eval_duration", firstToken - start);
+            usage.put("eval_duration", System.nanoTime() - firstToken);
+        }
+        return usage;
+    }
+
+    private Map<String, Object> requestBody(String system, String prompt, boolean jsonFormat, boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        if (system != null) {
+            requestBody.put("system", system);
+        }
+        requestBody.put("prompt", prompt);
+        requestBody.put("keep_alive", keepAlive);
+        requestBody.put("options", Map.of("temperature", 0));
+        if (jsonFormat) {
+            requestBody.put("format", "json");
+        }
+        requestBody.put("stream", stream);
+        return requestBody;
+    }
+}
@@ -0,0 +1,56 @@
+package io.neverending25.api.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LlmWarmup {
+    private final LlmService llmService;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${llm.warmup.enabled}")
+    private boolean enabled;
+    @Value("${plan.enhancement.llm}")
+    private boolean llmEnhancement;
+    @Value("${llm.prompt.compact}")
+    private boolean compactPrompts;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        virtualThreadExecutor.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                llmService.warmUp(null);
+                for (String system : systemPrompts()) {
+                    llmService.warmUp(system);
+                }
+                log.info("LLM model {} warmed up in {} ms", llmService.getModel(),
+                        (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.warn("LLM warm-up failed, first request will pay the model load: {}", e.getMessage());
+            }
+        });
+    }
+
+    private List<String> systemPrompts() {
+        List<String> systems = new ArrayList<>();
+        if (llmEnhancement) {
+            systems.add(compactPrompts ? LlmPrompts.ENHANCE_COMPACT_SYSTEM : LlmPrompts.ENHANCE_SYSTEM);
+        }
+        systems.add(compactPrompts ? LlmPrompts.VALIDATE_COMPACT_SYSTEM : LlmPrompts.VALIDATE_SYSTEM);
+        return systems;
+    }
+}
@@ -0,0 +1,109 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.client.PlanClient;
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+@Service
+@RequiredArgsConstructor
+public class PlanExportService {
+    private final PlanClient planClient;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${plan.export.page-size}")
+    private int pageSize;
+    @Getter
+    @Value("${plan.export.timeout}")
+    private Duration timeout;
+
+    public StreamingResponseBody export() {
+        return out -> {
+            Cursor cursor = new Cursor(0, null);
+            CompletableFuture<PageResponse<PlanResponse>> next = fetch(cursor);
+            Set<Long> exported = new HashSet<>();
+            Set<Long> previousIds = Set.of();
+            try {
+                while (next != null) {
+                    PageResponse<PlanResponse> page = await(next);
+                    List<PlanResponse> content = page.getContent() == null ? List.of() : page.getContent();
+                    Set<Long> ids = new HashSet<>(content.size() * 2);
+                    List<PlanResponse> fresh = new ArrayList<>(content.size());
+                    for (PlanResponse plan : content) {
+                        ids.add(plan.getId());
+                        if (plan.getId() == null || exported.add(plan.getId())) {
+                            fresh.add(plan);
+                        }
+                    }
+                    cursor = content.isEmpty() || ids.equals(previousIds) ? null : following(cursor, page);
+                    next = cursor == null ? null : fetch(cursor);
+
+                    for (PlanResponse plan : fresh) {
+                        out.write(objectMapper.writeValueAsBytes(plan));
+                        out.write('\n');
+                    }
+                    out.flush();
+                    previousIds = ids;
+                }
+            } catch (IOException | RuntimeException e) {
+                if (next != null) {
+                    next.cancel(true);
+                }
+                throw e;
+            }
+        };
+    }
+
+    private CompletableFuture<PageResponse<PlanResponse>> fetch(Cursor cursor) {
+        return CompletableFuture.supplyAsync(() -> cursor.token() != null
+                ? planClient.getPlansAfter(cursor.token(), pageSize)
+                : planClient.getPlans(cursor.page(), pageSize), virtualThreadExecutor);
+    }
+
+    private static Cursor following(Cursor requested, PageResponse<PlanResponse> page) {
+        if (page.getNextCursor() != null) {
+            return new Cursor(0, page.getNextCursor());
+        }
+        if (Boolean.TRUE.equals(page.getLast())) {
+            return null;
+        }
+        int number = requested.page() + 1;
+        if (page.getTotalPages() != null && number >= page.getTotalPages()) {
+            return null;
+        }
+        return new Cursor(number, null);
+    }
+
+    private static PageResponse<PlanResponse> await(CompletableFuture<PageResponse<PlanResponse>> page)
+            throws InterruptedIOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Plan export interrupted");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new CompletionException(e.getCause());
+        }
+    }
+
+    private record Cursor(int page, String token) {
+    }
+}
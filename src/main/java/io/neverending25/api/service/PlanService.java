@@ -1,23 +1,51 @@
 package io.neverending25.api.service;
 
+import io.neverending25.api.cache.PlanPageCache;
 import io.neverending25.api.client.PlanClient;
-import io.neverending25.api.dto.PageResponse;
-import io.neverending25.api.dto.PlanResponse;
+import io.neverending25.api.dto.FloorPlan;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class PlanService {
     private final PlanClient planClient;
+    private final PlanPageCache planPageCache;
 
-    public PageResponse<PlanResponse> getPlans(Integer page, Integer size) {
-        return planClient.getPlans(page, size);
+    @Value("${plan.write-behind.batch-endpoint}")
+    private boolean batchEndpoint;
+
+    public PlanPageCache.Page getPlans(int page, int size) {
+        return planPageCache.get(page, size, () -> planClient.getPlans(page, size));
+    }
+
+    public void createPlans(List<FloorPlan> plans, Consumer<FloorPlan> onCreated) {
+        if (batchEndpoint) {
+            planClient.createPlans(plans);
+            planPageCache.invalidate();
+            plans.forEach(onCreated);
+            return;
+        }
+        int created = 0;
+        try {
+            for (FloorPlan plan : plans) {
+                planClient.createPlan(plan);
+                created++;
+                onCreated.accept(plan);
+            }
+        } finally {
+            if (created > 0) {
+                planPageCache.invalidate();
+            }
+        }
     }
 
-    public String createPlan(Map<String, Object> plan) {
-        return planClient.createPlan(plan);
+    public Map<String, Object> pageCacheStats() {
+        return planPageCache.stats();
     }
 }
\ No newline at end of file
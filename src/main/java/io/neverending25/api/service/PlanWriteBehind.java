@@ -0,0 +1,265 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlanWriteBehind {
+    private final PlanService planService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${plan.write-behind.queue-capacity}")
+    private int queueCapacity;
+    @Value("${plan.write-behind.batch-size}")
+    private int batchSize;
+    @Value("${plan.write-behind.flush-interval}")
+    private Duration flushInterval;
+    @Value("${plan.write-behind.replay-interval}")
+    private Duration replayInterval;
+    @Value("${plan.write-behind.spool-file}")
+    private Path spoolFile;
+
+    private BlockingQueue<FloorPlan> queue;
+    private Thread worker;
+    private volatile boolean running;
+    private long nextReplay;
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong spooled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    void start() throws IOException {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        if (spoolFile.getParent() != null) {
+            Files.createDirectories(spoolFile.getParent());
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("plan-write-behind").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(flushInterval.toMillis() * 10);
+        List<FloorPlan> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            spool(remaining);
+        }
+    }
+
+    public void submit(FloorPlan plan) {
+        if (!queue.offer(plan)) {
+            spool(List.of(plan));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("persisted", persisted.get());
+        stats.put("spooled", spooled.get());
+        stats.put("replayed", replayed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("spoolPending", Files.exists(spoolFile));
+        return stats;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                FloorPlan first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<FloorPlan> batch = new ArrayList<>(batchSize);
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    flush(batch);
+                }
+                if (System.nanoTime() - nextReplay > 0) {
+                    nextReplay = System.nanoTime() + replayInterval.toNanos();
+                    replay();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Plan write-behind worker failed", e);
+            }
+        }
+    }
+
+    private void flush(List<FloorPlan> batch) {
+        AtomicInteger written = new AtomicInteger();
+        try {
+            planService.createPlans(batch, plan -> written.incrementAndGet());
+        } catch (Exception e) {
+            List<FloorPlan> unwritten = batch.subList(written.get(), batch.size());
+            log.warn("Plan service unavailable, spooling {} plans to {}", unwritten.size(), spoolFile, e);
+            spool(unwritten);
+        } finally {
+            persisted.addAndGet(written.get());
+        }
+    }
+
+    private synchronized void spool(List<FloorPlan> plans) {
+        try (FileChannel channel = FileChannel.open(spoolFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            for (FloorPlan plan : plans) {
+                out.write(objectMapper.writeValueAsBytes(plan));
+                out.write('\n');
+            }
+            channel.force(false);
+            spooled.addAndGet(plans.size());
+        } catch (IOException e) {
+            log.error("Failed to spool {} plans to {}", plans.size(), spoolFile, e);
+        }
+    }
+
+    private void replay() throws IOException {
+        Path replaying = spoolFile.resolveSibling(spoolFile.getFileName() + ".replaying");
+        Path checkpoint = spoolFile.resolveSibling(spoolFile.getFileName() + ".offset");
+        synchronized (this) {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(spoolFile)) {
+                    return;
+                }
+                Files.deleteIfExists(checkpoint);
+                Files.move(spoolFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        long committed = Math.min(readCheckpoint(checkpoint), Files.size(replaying));
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(replaying))) {
+            in.skipNBytes(committed);
+            List<FloorPlan> batch = new ArrayList<>(batchSize);
+            long[] ends = new long[batchSize];
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = committed;
+            int read;
+            do {
+                read = readLine(in, line);
+                if (read >= 0) {
+                    position += read;
+                    FloorPlan plan = parse(line.toByteArray());
+                    if (plan != null) {
+                        batch.add(plan);
+                    } else if (batch.isEmpty()) {
+                        committed = position;
+                        continue;
+                    }
+                    ends[batch.size() - 1] = position;
+                }
+                if (batch.size() == batchSize || read < 0 && !batch.isEmpty()) {
+                    int written = replayBatch(batch);
+                    if (written > 0) {
+                        committed = ends[written - 1];
+                    }
+                    writeCheckpoint(checkpoint, committed);
+                    if (written < batch.size()) {
+                        return;
+                    }
+                    batch.clear();
+                }
+            } while (read >= 0);
+        }
+        Files.delete(replaying);
+        Files.deleteIfExists(checkpoint);
+    }
+
+    private int replayBatch(List<FloorPlan> batch) {
+        AtomicInteger written = new AtomicInteger();
+        try {
+            planService.createPlans(batch, plan -> written.incrementAndGet());
+        } catch (Exception e) {
+            log.info("Plan service still unavailable, keeping {} spooled plans", batch.size() - written.get());
+        }
+        replayed.addAndGet(written.get());
+        return written.get();
+    }
+
+    private FloorPlan parse(byte[] line) {
+        if (line.length == 0 || new String(line, StandardCharsets.UTF_8).isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(line, FloorPlan.class);
+        } catch (JacksonException e) {
+            log.warn("Quarantining unreadable spooled plan to {}: {}", rejectedFile(), e.getOriginalMessage());
+            try (OutputStream out = Files.newOutputStream(rejectedFile(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                out.write(line);
+                out.write('\n');
+            } catch (IOException io) {
+                log.error("Failed to quarantine spooled plan to {}", rejectedFile(), io);
+            }
+            rejected.incrementAndGet();
+            return null;
+        }
+    }
+
+    private Path rejectedFile() {
+        return spoolFile.resolveSibling(spoolFile.getFileName() + ".rejected");
+    }
+
+    private static int readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int consumed = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            consumed++;
+            if (b == '\n') {
+                return consumed;
+            }
+            line.write(b);
+        }
+        return consumed == 0 ? -1 : consumed;
+    }
+
+    private static long readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        return Long.parseLong(Files.readString(checkpoint).trim());
+    }
+
+    private static void writeCheckpoint(Path checkpoint, long offset) throws IOException {
+        Path next = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        Files.writeString(next, Long.toString(offset));
+        Files.move(next, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
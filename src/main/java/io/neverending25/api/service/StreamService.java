@@ -0,0 +1,86 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.config.ServerTiming;
+import io.neverending25.api.dto.FloorPlan;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class StreamService {
+    private final APIService apiService;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${llm.stream.timeout}")
+    private Duration timeout;
+
+    public SseEmitter llm(Map<String, Object> body) {
+        return stream(listener -> apiService.llm(body, listener));
+    }
+
+    public SseEmitter validate(FloorPlan plan) {
+        return stream(listener -> apiService.validatePlanViaLlama(plan, listener));
+    }
+
+    private SseEmitter stream(Function<LlmProgressListener, Map<String, Object>> call) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        virtualThreadExecutor.execute(ServerTiming.propagate(() -> {
+            try {
+                Map<String, Object> result = call.apply(new LlmProgressListener() {
+                    @Override
+                    public void stage(String stage) {
+                        send(emitter, "stage", Map.of("stage", stage));
+                    }
+
+                    @Override
+                    public void token(String token) {
+                        send(emitter, "token", Map.of("response", token));
+                    }
+                });
+                String timing = ServerTiming.header();
+                if (timing != null) {
+                    send(emitter, "timing", Map.of("serverTiming", timing));
+                }
+                send(emitter, "result", result);
+                emitter.complete();
+            } catch (ResponseStatusException e) {
+                sendError(emitter, e);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }));
+        return emitter;
+    }
+
+    private static void sendError(SseEmitter emitter, ResponseStatusException e) {
+        try {
+            emitter.send(SseEmitter.event().name("error").data(
+                    Map.of("status", e.getStatusCode().value(), "message", String.valueOf(e.getReason())),
+                    MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException ignored) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            CancellationException cancelled = new CancellationException("SSE client disconnected");
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+    }
+}
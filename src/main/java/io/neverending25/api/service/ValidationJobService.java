@@ -0,0 +1,116 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.config.ServerTiming;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.ValidationJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ValidationJobService {
+    private final APIService apiService;
+    private final ExecutorService virtualThreadExecutor;
+
+    @Value("${validation.jobs.max-entries}")
+    private int maxEntries;
+    @Value("${validation.jobs.ttl}")
+    private Duration ttl;
+
+    private final Map<String, ValidationJob> jobs = new LinkedHashMap<>();
+
+    public ValidationJob submit(FloorPlan plan) {
+        ValidationJob job = new ValidationJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setStatus(ValidationJob.Status.PENDING);
+        job.setCreatedAt(Instant.now());
+
+        ValidationJob submitted;
+        synchronized (jobs) {
+            purge();
+            if (jobs.size() >= maxEntries) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many validation jobs in flight");
+            }
+            jobs.put(job.getId(), job);
+            submitted = snapshot(job);
+        }
+
+        virtualThreadExecutor.execute(() -> run(job, plan));
+        return submitted;
+    }
+
+    public ValidationJob get(String id) {
+        synchronized (jobs) {
+            purge();
+            ValidationJob job = jobs.get(id);
+            if (job == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Validation job " + id + " not found");
+            }
+            return snapshot(job);
+        }
+    }
+
+    private void run(ValidationJob job, FloorPlan plan) {
+        update(job, ValidationJob.Status.RUNNING, null, null, null);
+        Map<String, Long> timings = new LinkedHashMap<>();
+        Map<String, Object> result;
+        try {
+            result = ServerTiming.collect(timings, () -> apiService.validatePlanViaLlama(plan));
+        } catch (Exception e) {
+            log.warn("Validation job {} failed", job.getId(), e);
+            update(job, ValidationJob.Status.FAILED, null, e.getMessage(), ServerTiming.format(timings));
+            return;
+        }
+        update(job, ValidationJob.Status.DONE, result, null, ServerTiming.format(timings));
+    }
+
+    private void update(ValidationJob job, ValidationJob.Status status, Map<String, Object> result, String error,
+                        String serverTiming) {
+        synchronized (jobs) {
+            job.setStatus(status);
+            job.setResult(result);
+            job.setError(error);
+            job.setServerTiming(serverTiming);
+            if (status == ValidationJob.Status.DONE || status == ValidationJob.Status.FAILED) {
+                job.setCompletedAt(Instant.now());
+            }
+        }
+    }
+
+    private void purge() {
+        Instant cutoff = Instant.now().minus(ttl);
+        Iterator<ValidationJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ValidationJob job = iterator.next();
+            boolean completed = job.getCompletedAt() != null;
+            if (completed && (job.getCompletedAt().isBefore(cutoff) || jobs.size() >= maxEntries)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static ValidationJob snapshot(ValidationJob job) {
+        ValidationJob copy = new ValidationJob();
+        copy.setId(job.getId());
+        copy.setStatus(job.getStatus());
+        copy.setCreatedAt(job.getCreatedAt());
+        copy.setCompletedAt(job.getCompletedAt());
+        copy.setResult(job.getResult());
+        copy.setError(job.getError());
+        copy.setServerTiming(job.getServerTiming());
+        return copy;
+    }
+}
@@ -0,0 +1,50 @@
+package io.neverending25.api.stub;
+
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+record LatencyProfile(String name, Duration median, Duration p99, double errorRate) {
+    private static final double Z_99 = 2.3263;
+
+    static LatencyProfile of(Environment environment, String name) {
+        String prefix = "stub." + name + ".";
+        return new LatencyProfile(name,
+                environment.getProperty(prefix + "latency.median", Duration.class, Duration.ZERO),
+                environment.getProperty(prefix + "latency.p99", Duration.class, Duration.ZERO),
+                environment.getProperty(prefix + "error-rate", Double.class, 0.0));
+    }
+
+    Duration sample() {
+        if (median.isZero()) {
+            return Duration.ZERO;
+        }
+        double sigma = p99.compareTo(median) > 0
+                ? Math.log((double) p99.toNanos() / median.toNanos()) / Z_99
+                : 0;
+        double nanos = median.toNanos() * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofNanos((long) nanos);
+    }
+
+    void simulate() {
+        sleep(sample());
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Injected " + name + " failure");
+        }
+    }
+
+    static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.neverending25.api.stub;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Profile("loadtest")
+@RequestMapping("/stubs/ollama/api")
+public class OllamaStubController {
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String VALIDATION = """
+            {"valid": false, "issues": [{"description": "Room 5 at coordinates (258,370) is isolated with no door access", \
+            "location": [[258,370],[258,407]]}], "good": [{"description": "Main entrance properly positioned", \
+            "location": [[102,40],[137,51]]}], "suggestions": [{"description": "Add door from corridor to Room 5", \
+            "move_door": {"from": null, "to": [[203,370],[228,370]]}, "remove_wall": null}]}""";
+    private static final String COMPACT_ENHANCEMENT = """
+            {"doors": [[203,370,228,376]], "load_bearing_walls": [0, 1, 2, 3]}""";
+    private static final String CHAT = "Hello! I can help with architecture, building codes, and floor plans.";
+
+    private final ObjectMapper objectMapper;
+    private final LatencyProfile latency;
+    private final Duration tokenLatency;
+
+    public OllamaStubController(ObjectMapper objectMapper, Environment environment) {
+        this.objectMapper = objectMapper;
+        this.latency = LatencyProfile.of(environment, "ollama");
+        this.tokenLatency = environment.getProperty("stub.ollama.token-latency", Duration.class, Duration.ZERO);
+    }
+
+    @GetMapping("/tags")
+    public Map<String, Object> tags() {
+        return Map.of("models", List.of(Map.of("name", "llama3:latest")));
+    }
+
+    @PostMapping("/generate")
+    public ResponseEntity<StreamingResponseBody> generate(@RequestBody Map<String, Object> request) {
+        long start = System.nanoTime();
+        latency.simulate();
+        long loaded = System.nanoTime();
+        String text = respond(String.valueOf(request.get("system")), String.valueOf(request.get("prompt")));
+        int promptTokens = (String.valueOf(request.get("system")).length()
+                + String.valueOf(request.get("prompt")).length()) / CHARS_PER_TOKEN;
+        int evalTokens = Math.max(1, text.length() / CHARS_PER_TOKEN);
+
+        if (!Boolean.TRUE.equals(request.get("stream"))) {
+            LatencyProfile.sleep(tokenLatency.multipliedBy(evalTokens));
+            byte[] json = objectMapper.writeValueAsBytes(chunk(request, text, true, promptTokens, evalTokens,
+                    start, loaded));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(json));
+        }
+        StreamingResponseBody body = out -> {
+            for (int i = 0; i < text.length(); i += CHARS_PER_TOKEN) {
+                LatencyProfile.sleep(tokenLatency);
+                String token = text.substring(i, Math.min(text.length(), i + CHARS_PER_TOKEN));
+                out.write(objectMapper.writeValueAsBytes(chunk(request, token, false, 0, 0, start, loaded)));
+                out.write('\n');
+                out.flush();
+            }
+            out.write(objectMapper.writeValueAsBytes(chunk(request, "", true, promptTokens, evalTokens,
+                    start, loaded)));
+            out.write('\n');
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static String respond(String system, String prompt) {
+        if (system.contains("compliance validator")) {
+            return VALIDATION;
+        }
+        if (system.contains("enhances architectural plans")) {
+            if (system.contains("PLAN ENCODING")) {
+                return COMPACT_ENHANCEMENT;
+            }
+            int start = prompt.indexOf('{');
+            int end = prompt.lastIndexOf('}');
+            return start >= 0 && end > start ? prompt.substring(start, end + 1) : "{}";
+        }
+        return prompt.isEmpty() ? "" : CHAT;
+    }
+
+    private static Map<String, Object> chunk(Map<String, Object> request, String response, boolean done,
+                                             int promptTokens, int evalTokens, long start, long loaded) {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("model", request.get("model"));
+        chunk.put("response", response);
+        chunk.put("done", done);
+        if (done) {
+            long now = System.nanoTime();
+            chunk.put("total_duration", now - start);
+            chunk.put("load_duration", loaded - start);
+            chunk.put("prompt_eval_count", promptTokens);
+            chunk.put("eval_count", evalTokens);
+            chunk.put("eval_duration", now - loaded);
+        }
+        return chunk;
+    }
+}
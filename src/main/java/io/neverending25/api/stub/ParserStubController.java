@@ -0,0 +1,36 @@
+package io.neverending25.api.stub;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@Profile("loadtest")
+@RequestMapping("/stubs/parser")
+public class ParserStubController {
+    private final LatencyProfile latency;
+    private final byte[] mockPlan;
+
+    public ParserStubController(Environment environment) {
+        this.latency = LatencyProfile.of(environment, "parser");
+        try (InputStream in = getClass().getResourceAsStream("/demo/mock-floorplan.json")) {
+            this.mockPlan = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostMapping(value = "/raster-to-vector-base64", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] parse(@RequestParam("file") String file) {
+        latency.simulate();
+        return mockPlan;
+    }
+}
@@ -0,0 +1,90 @@
+package io.neverending25.api.stub;
+
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RestController
+@Profile("loadtest")
+@RequestMapping("/stubs/plan/api/plans")
+public class PlanStubController {
+    private final ObjectMapper objectMapper;
+    private final LatencyProfile latency;
+    private final int capacity;
+    private final List<PlanResponse> plans = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    public PlanStubController(ObjectMapper objectMapper, Environment environment) {
+        this.objectMapper = objectMapper;
+        this.latency = LatencyProfile.of(environment, "plan");
+        this.capacity = environment.getProperty("stub.plan.capacity", Integer.class, 10_000);
+    }
+
+    @GetMapping
+    public PageResponse<PlanResponse> getPlans(@RequestParam(defaultValue = "0") int page,
+                                               @RequestParam(defaultValue = "10") int size) {
+        if (page < 0 || size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page must be >= 0 and size >= 1");
+        }
+        latency.simulate();
+        PageResponse<PlanResponse> response = new PageResponse<>();
+        synchronized (plans) {
+            int total = plans.size();
+            int from = (int) Math.min(total, (long) page * size);
+            int to = (int) Math.min(total, (long) from + size);
+            response.setContent(new ArrayList<>(plans.subList(from, to)));
+            response.setTotalElements((long) total);
+            response.setTotalPages((int) ((total + (long) size - 1) / size));
+            response.setLast(to >= total);
+        }
+        response.setPageNumber(page);
+        response.setPageSize(size);
+        response.setFirst(page == 0);
+        return response;
+    }
+
+    @PostMapping
+    public String createPlan(@RequestBody String plan) {
+        latency.simulate();
+        return String.valueOf(store(plan));
+    }
+
+    @PostMapping("/batch")
+    public String createPlans(@RequestBody List<Map<String, Object>> batch) {
+        latency.simulate();
+        for (Map<String, Object> plan : batch) {
+            store(objectMapper.writeValueAsString(plan));
+        }
+        return String.valueOf(batch.size());
+    }
+
+    private long store(String planData) {
+        PlanResponse plan = new PlanResponse();
+        plan.setId(ids.incrementAndGet());
+        plan.setPlanData(planData);
+        plan.setCreatedAt(LocalDateTime.now());
+        synchronized (plans) {
+            if (plans.size() == capacity) {
+                plans.removeFirst();
+            }
+            plans.add(plan);
+        }
+        return plan.getId();
+    }
+}
@@ -0,0 +1,57 @@
+package io.neverending25.api.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloorPlanBenchmarks {
+    @Param({"mock", "100", "1000", "10000"})
+    public String walls;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private byte[] json;
+    private FloorPlan plan;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("mock".equals(walls)) {
+            try (InputStream in = FloorPlanBenchmarks.class.getResourceAsStream("/demo/mock-floorplan.json")) {
+                json = in.readAllBytes();
+            }
+            plan = objectMapper.readValue(json, FloorPlan.class);
+        } else {
+            plan = SyntheticPlans.grid(Integer.parseInt(walls));
+            json = objectMapper.writeValueAsBytes(plan);
+        }
+    }
+
+    @Benchmark
+    public FloorPlan deserialize() {
+        return objectMapper.readValue(json, FloorPlan.class);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return objectMapper.writeValueAsBytes(plan);
+    }
+}
@@ -0,0 +1,48 @@
+package io.neverending25.api.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageResponseBenchmarks {
+    private static final TypeReference<PageResponse<PlanResponse>> PAGE_TYPE = new TypeReference<>() {};
+
+    @Param({"10", "100"})
+    public int size;
+
+    @Param({"100", "1000"})
+    public int walls;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private byte[] json;
+
+    @Setup
+    public void setUp() {
+        String planData = objectMapper.writeValueAsString(SyntheticPlans.grid(walls));
+        json = objectMapper.writeValueAsBytes(SyntheticPlans.page(size, planData));
+    }
+
+    @Benchmark
+    public PageResponse<PlanResponse> deserialize() {
+        return objectMapper.readValue(json, PAGE_TYPE);
+    }
+}
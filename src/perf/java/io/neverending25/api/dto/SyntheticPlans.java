@@ -0,0 +1,99 @@
+package io.neverending25.api.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class SyntheticPlans {
+    private static final int CELL = 120;
+
+    private SyntheticPlans() {
+    }
+
+    public static FloorPlan grid(int targetWalls) {
+        int cells = 1;
+        while (2 * cells * (cells + 1) < targetWalls) {
+            cells++;
+        }
+
+        int[] walls = new int[2 * cells * (cells + 1) * FloorPlan.WALL_STRIDE];
+        int w = 0;
+        for (int row = 0; row <= cells; row++) {
+            for (int col = 0; col < cells; col++) {
+                w = put(walls, w, col * CELL, row * CELL, (col + 1) * CELL, row * CELL);
+            }
+        }
+        for (int col = 0; col <= cells; col++) {
+            for (int row = 0; row < cells; row++) {
+                w = put(walls, w, col * CELL, row * CELL, col * CELL, (row + 1) * CELL);
+            }
+        }
+
+        int rooms = cells * cells;
+        int[] doors = new int[(rooms + 1) / 2 * FloorPlan.DOOR_STRIDE];
+        int d = 0;
+        int[] roomOffsets = new int[rooms + 1];
+        int[] roomXs = new int[rooms * 4];
+        int[] roomYs = new int[rooms * 4];
+        String[] roomIds = new String[rooms * 4];
+        for (int room = 0; room < rooms; room++) {
+            int x = (room % cells) * CELL;
+            int y = (room / cells) * CELL;
+            if (room % 2 == 0) {
+                d = put(doors, d, x + 40, y - 4, x + 70, y - 4);
+                d = put(doors, d, x + 70, y + 4, x + 40, y + 4);
+            }
+            int base = room * 4;
+            roomXs[base] = x;
+            roomYs[base] = y;
+            roomXs[base + 1] = x + CELL;
+            roomYs[base + 1] = y;
+            roomXs[base + 2] = x + CELL;
+            roomYs[base + 2] = y + CELL;
+            roomXs[base + 3] = x;
+            roomYs[base + 3] = y + CELL;
+            roomOffsets[room + 1] = base + 4;
+            Arrays.fill(roomIds, base, base + 4, "room_" + room);
+        }
+
+        FloorPlan plan = new FloorPlan();
+        plan.setWalls(walls);
+        plan.setDoors(doors);
+        plan.setRoomOffsets(roomOffsets);
+        plan.setRoomXs(roomXs);
+        plan.setRoomYs(roomYs);
+        plan.setRoomIds(roomIds);
+        plan.setArea((double) rooms * CELL * CELL);
+        plan.setPerimeter(4.0 * cells * CELL);
+        return plan;
+    }
+
+    private static int put(int[] target, int at, int x1, int y1, int x2, int y2) {
+        target[at] = x1;
+        target[at + 1] = y1;
+        target[at + 2] = x2;
+        target[at + 3] = y2;
+        return at + 4;
+    }
+
+    public static PageResponse<PlanResponse> page(int size, String planData) {
+        List<PlanResponse> content = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PlanResponse plan = new PlanResponse();
+            plan.setId((long) i);
+            plan.setPlanData(planData);
+            plan.setCreatedAt(LocalDateTime.of(2025, 11, 30, 8, 54, 33).plusMinutes(i));
+            content.add(plan);
+        }
+        PageResponse<PlanResponse> page = new PageResponse<>();
+        page.setContent(content);
+        page.setPageNumber(0);
+        page.setPageSize(size);
+        page.setTotalPages(1);
+        page.setTotalElements((long) size);
+        page.setFirst(true);
+        page.setLast(true);
+        return page;
+    }
+}
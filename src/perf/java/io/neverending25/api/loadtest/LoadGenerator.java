@@ -0,0 +1,273 @@
+package io.neverending25.api.loadtest;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class LoadGenerator {
+    private static final int IMAGE_SIZE = 440;
+    private static final int MARKER_CELL = 4;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final int rps;
+    private final Duration duration;
+    private final Duration timeout;
+    private final boolean unique;
+    private final String[] schedule;
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    private final Map<String, Object> mockPlan;
+    private final BufferedImage mockImage;
+    private final String mockImageBase64;
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    private LoadGenerator(Map<String, String> options) throws IOException {
+        this.baseUrl = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        this.rps = Integer.parseInt(options.getOrDefault("rps", "10"));
+        this.duration = duration(options.getOrDefault("duration", "30s"));
+        this.timeout = duration(options.getOrDefault("timeout", "120s"));
+        this.unique = Boolean.parseBoolean(options.getOrDefault("unique", "true"));
+        this.schedule = schedule(options.getOrDefault("mix", "parse:1,validate:1,llm:1,plans:4"));
+        for (String endpoint : schedule) {
+            stats.computeIfAbsent(endpoint, e -> new Stats());
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        try (InputStream in = LoadGenerator.class.getResourceAsStream("/demo/mock-floorplan.json")) {
+            this.mockPlan = objectMapper.readValue(in, Map.class);
+        }
+        this.mockImage = render(mockPlan);
+        this.mockImageBase64 = Base64.getEncoder().encodeToString(png(mockImage));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Usage: LoadGenerator [--base-url=http://localhost:8080] [--rps=10] "
+                        + "[--duration=30s] [--timeout=120s] [--unique=true] "
+                        + "[--mix=parse:1,validate:1,llm:1,plans:4]");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = duration.toNanos() / intervalNanos;
+        System.out.printf(Locale.ROOT, "Driving %s at %d rps for %s (%d requests)%n", baseUrl, rps, duration, total);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * intervalNanos;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                String endpoint = schedule[(int) (i % schedule.length)];
+                long sequence = i;
+                executor.execute(() -> call(endpoint, sequence, intended));
+            }
+        }
+        report(lastCompletion.get() - start);
+    }
+
+    private void call(String endpoint, long sequence, long intended) {
+        boolean ok;
+        try {
+            HttpResponse<Void> response = httpClient.send(request(endpoint, sequence),
+                    HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 400;
+        } catch (IOException | RuntimeException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long now = System.nanoTime();
+        lastCompletion.accumulateAndGet(now, Math::max);
+        stats.get(endpoint).record(now - intended, ok);
+    }
+
+    private HttpRequest request(String endpoint, long sequence) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(timeout);
+        return switch (endpoint) {
+            case "parse" -> post(builder, "/api/parse", Map.of("image", image(sequence)));
+            case "validate" -> post(builder, "/api/validate", plan(sequence));
+            case "llm" -> post(builder, "/api/llm", Map.of("prompt",
+                    "What is the minimum corridor width in a residential building?" + (unique ? " #" + sequence : "")));
+            case "plans" -> builder.uri(baseUrl.resolve("/api/plans?page=0&size=10")).GET().build();
+            default -> throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        };
+    }
+
+    private HttpRequest post(HttpRequest.Builder builder, String path, Object body) {
+        return builder.uri(baseUrl.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private String image(long sequence) {
+        if (!unique) {
+            return mockImageBase64;
+        }
+        BufferedImage image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.drawImage(mockImage, 0, 0, null);
+            graphics.setColor(Color.BLACK);
+            long marker = ThreadLocalRandom.current().nextLong();
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if ((marker >>> bit & 1) != 0) {
+                    graphics.fillRect(MARKER_CELL * (bit + 2), IMAGE_SIZE - 3 * MARKER_CELL, MARKER_CELL, MARKER_CELL);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return Base64.getEncoder().encodeToString(png(image));
+    }
+
+    private Map<String, Object> plan(long sequence) {
+        if (!unique) {
+            return mockPlan;
+        }
+        Map<String, Object> plan = new LinkedHashMap<>(mockPlan);
+        plan.put("area", ((Number) mockPlan.get("area")).longValue() + sequence);
+        return plan;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BufferedImage render(Map<String, Object> plan) {
+        BufferedImage image = new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, IMAGE_SIZE, IMAGE_SIZE);
+            graphics.setColor(Color.BLACK);
+            graphics.setStroke(new BasicStroke(4, BasicStroke.CAP_SQUARE, BasicStroke.JOIN_MITER));
+            for (Map<String, Object> wall : (List<Map<String, Object>>) plan.get("walls")) {
+                List<List<Number>> position = (List<List<Number>>) wall.get("position");
+                graphics.drawLine(position.get(0).get(0).intValue(), position.get(0).get(1).intValue(),
+                        position.get(1).get(0).intValue(), position.get(1).get(1).intValue());
+            }
+            graphics.setStroke(new BasicStroke(1));
+            for (Map<String, Object> door : (List<Map<String, Object>>) plan.get("doors")) {
+                Polygon box = new Polygon();
+                for (List<Number> corner : (List<List<Number>>) door.get("bbox")) {
+                    box.addPoint(corner.get(0).intValue(), corner.get(1).intValue());
+                }
+                graphics.setColor(Color.WHITE);
+                graphics.fillPolygon(box);
+                graphics.setColor(Color.BLACK);
+                graphics.drawPolygon(box);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        System.out.printf(Locale.ROOT, "%n%-10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "count", "errors", "ok/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        stats.forEach((endpoint, s) -> {
+            long[] latencies = s.sorted();
+            System.out.printf(Locale.ROOT, "%-10s %8d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    endpoint, latencies.length, s.errors, (latencies.length - s.errors) / seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), percentile(latencies, 1.0));
+        });
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.clamp(rank, 0, sorted.length - 1)] / 1e6;
+    }
+
+    private static String[] schedule(String mix) {
+        List<String> schedule = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] weighted = part.split(":");
+            int weight = weighted.length > 1 ? Integer.parseInt(weighted[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                schedule.add(weighted[0].trim());
+            }
+        }
+        return schedule.toArray(String[]::new);
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+
+    private static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.SyntheticPlans;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmarks {
+    @Param({"100", "1000", "10000"})
+    public int walls;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private String enhancementResponse;
+    private String validationResponse;
+
+    @Setup
+    public void setUp() {
+        enhancementResponse = "Here is the enhanced plan:\n" + objectMapper.writeValueAsString(SyntheticPlans.grid(walls))
+                + "\nLet me know if you need anything else.";
+        validationResponse = "{\"valid\": true, \"issues\": [], \"good\": [\"Rooms are connected\"], "
+                + "\"suggestions\": [\"Consider a wider corridor\"]}";
+    }
+
+    @Benchmark
+    public FloorPlan extractEnhancement() {
+        return objectMapper.readValue(LlmJsonExtractor.extract(enhancementResponse), FloorPlan.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> extractValidation() {
+        return objectMapper.readValue(LlmJsonExtractor.extract(validationResponse), Map.class);
+    }
+}
@@ -0,0 +1,49 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.SyntheticPlans;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBenchmarks {
+    @Param({"100", "1000", "10000"})
+    public int walls;
+
+    private final ObjectMapper objectMapper = new JsonMapper();
+    private final CompactPlanCodec compactPlanCodec = new CompactPlanCodec(objectMapper);
+    private FloorPlan plan;
+
+    @Setup
+    public void setUp() {
+        plan = SyntheticPlans.grid(walls);
+    }
+
+    @Benchmark
+    public String verbosePrompt() {
+        return String.format(LlmPrompts.PLAN_PROMPT, objectMapper.writeValueAsString(plan));
+    }
+
+    @Benchmark
+    public String compactPrompt() {
+        return String.format(LlmPrompts.PLAN_PROMPT, compactPlanCodec.encode(plan));
+    }
+}
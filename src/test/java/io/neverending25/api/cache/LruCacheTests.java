@@ -0,0 +1,50 @@
+package io.neverending25.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void peekDoesNotCountHitsOrMisses() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+
+        assertThat(cache.peek("a")).isEqualTo(1);
+        assertThat(cache.peek("b")).isNull();
+        assertThat(cache.hits()).isZero();
+        assertThat(cache.misses()).isZero();
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() throws InterruptedException {
+        LruCache<String, Integer> cache = new LruCache<>(2, Duration.ofMillis(20));
+        cache.put("a", 1);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        Thread.sleep(40);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.expirations()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+}
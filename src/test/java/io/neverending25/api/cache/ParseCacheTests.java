@@ -0,0 +1,88 @@
+package io.neverending25.api.cache;
+
+import io.neverending25.api.dto.FloorPlan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParseCacheTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void callersCannotMutateCachedPlans() throws IOException {
+        ParseCache cache = cache(DataSize.ofMegabytes(1));
+
+        FloorPlan first = cache.get("a", ParseCacheTests::plan);
+        first.getWalls()[0] = 99;
+        first.getRoomIds()[0] = "X";
+        FloorPlan second = cache.get("a", () -> null);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getWalls()).containsExactly(0, 0, 400, 0);
+        assertThat(second.getRoomIds()).containsExactly("A");
+    }
+
+    @Test
+    void countsEachMissOnce() throws IOException {
+        ParseCache cache = cache(DataSize.ofMegabytes(1));
+
+        cache.get("a", ParseCacheTests::plan);
+        cache.get("a", () -> null);
+
+        assertThat(cache.stats())
+                .containsEntry("misses", 1L)
+                .containsEntry("hits", 1L)
+                .containsEntry("diskHits", 0L);
+    }
+
+    @Test
+    void diskTierDropsTheOldestEntriesOnceOverItsLimit() throws IOException {
+        long entrySize = objectMapper.writeValueAsBytes(plan()).length;
+        ParseCache cache = cache(DataSize.ofBytes(entrySize * 5 / 2));
+
+        cache.get("a", ParseCacheTests::plan);
+        cache.get("b", ParseCacheTests::plan);
+        Files.setLastModifiedTime(dir.resolve("a.json"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(dir.resolve("b.json"), FileTime.fromMillis(2000));
+        cache.get("c", ParseCacheTests::plan);
+
+        assertThat(dir.resolve("a.json")).doesNotExist();
+        assertThat(dir.resolve("b.json")).exists();
+        assertThat(dir.resolve("c.json")).exists();
+        assertThat(cache.stats())
+                .containsEntry("diskEvictions", 1L)
+                .containsEntry("diskBytes", entrySize * 2);
+    }
+
+    private ParseCache cache(DataSize diskMaxSize) throws IOException {
+        ParseCache cache = new ParseCache(objectMapper);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "cacheDir", dir.toString());
+        ReflectionTestUtils.setField(cache, "diskMaxSize", diskMaxSize);
+        cache.init();
+        return cache;
+    }
+
+    private static FloorPlan plan() {
+        FloorPlan plan = new FloorPlan();
+        plan.setWalls(new int[] {0, 0, 400, 0});
+        plan.setDoors(new int[0]);
+        plan.setRoomOffsets(new int[] {0, 1});
+        plan.setRoomXs(new int[] {150});
+        plan.setRoomYs(new int[] {150});
+        plan.setRoomIds(new String[] {"A"});
+        return plan;
+    }
+}
@@ -0,0 +1,65 @@
+package io.neverending25.api.cache;
+
+import io.neverending25.api.dto.FloorPlan;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanCanonicalizerTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+    private final PlanCanonicalizer canonicalizer = new PlanCanonicalizer();
+
+    @Test
+    void ignoresKeyOrderArrayOrderAndNumberFormatting() {
+        FloorPlan plan = plan("""
+                {"walls": [{"position": [[0, 0], [10, 0]]}, {"position": [[10, 0], [10, 5]]}],
+                 "rooms": [[{"id": "a", "x": 1, "y": 2}], [{"id": "b", "x": 3, "y": 4}]],
+                 "area": 157212}""");
+        FloorPlan reordered = plan("""
+                {"area": 157212.0,
+                 "rooms": [[{"id": "b", "x": 3, "y": 4}], [{"id": "a", "x": 1, "y": 2}]],
+                 "walls": [{"position": [[10, 0], [10, 5]]}, {"position": [[0, 0], [10, 0]]}]}""");
+
+        assertThat(canonicalizer.hash(reordered, "v1")).isEqualTo(canonicalizer.hash(plan, "v1"));
+        assertThat(canonicalizer.hash(plan, "v2")).isNotEqualTo(canonicalizer.hash(plan, "v1"));
+    }
+
+    @Test
+    void keepsCoordinateOrder() {
+        FloorPlan plan = plan("{\"rooms\": [[{\"id\": \"a\", \"x\": 1, \"y\": 2}]]}");
+        FloorPlan swapped = plan("{\"rooms\": [[{\"id\": \"a\", \"x\": 2, \"y\": 1}]]}");
+
+        assertThat(canonicalizer.hash(swapped, "v1")).isNotEqualTo(canonicalizer.hash(plan, "v1"));
+    }
+
+    @Test
+    void keepsVertexOrderInsideElements() {
+        FloorPlan plan = plan("{\"doors\": [{\"bbox\": [[0, 0], [10, 0], [10, 5], [0, 5]]}]}");
+        FloorPlan crossed = plan("{\"doors\": [{\"bbox\": [[0, 0], [10, 5], [10, 0], [0, 5]]}]}");
+
+        assertThat(canonicalizer.hash(crossed, "v1")).isNotEqualTo(canonicalizer.hash(plan, "v1"));
+    }
+
+    @Test
+    void matchesTheCanonicalJsonOfThePlan() {
+        FloorPlan plan = plan("""
+                {"walls": [{"position": [[0, 0], [10, 0]]}],
+                 "doors": [{"bbox": [[1, 1], [2, 1], [2, 2], [1, 2]]}],
+                 "rooms": [[{"id": "k\\"1", "x": 1, "y": 2}, {"id": "k2", "x": 3, "y": 4}]],
+                 "area": 12.50, "perimeter": 1000}""");
+        String canonical = "{\"area\":12.5,\"doors\":[{\"bbox\":[[1,1],[2,1],[2,2],[1,2]]}],\"perimeter\":1000,"
+                + "\"rooms\":[[{\"id\":\"k\\\"1\",\"x\":1,\"y\":2},{\"id\":\"k2\",\"x\":3,\"y\":4}]],"
+                + "\"walls\":[{\"position\":[[0,0],[10,0]]}]}\nv1";
+
+        assertThat(canonicalizer.hash(plan, "v1")).isEqualTo(HexFormat.of().formatHex(
+                ParseCache.newDigest().digest(canonical.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private FloorPlan plan(String json) {
+        return objectMapper.readValue(json, FloorPlan.class);
+    }
+}
@@ -0,0 +1,66 @@
+package io.neverending25.api.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationCacheTests {
+
+    @Test
+    void callerThatMissedBeforeAFlightCompletedReusesItsResult() {
+        ValidationCache cache = cache();
+        AtomicInteger validations = new AtomicInteger();
+
+        assertThat(cache.get("plan")).isNull();
+        Map<String, Object> first = cache.compute("plan", () -> Map.of("valid", validations.incrementAndGet()));
+        Map<String, Object> second = cache.compute("plan", () -> Map.of("valid", validations.incrementAndGet()));
+
+        assertThat(second).isSameAs(first);
+        assertThat(validations).hasValue(1);
+        assertThat(cache.stats()).containsEntry("misses", 1L).containsEntry("hits", 0L);
+    }
+
+    @Test
+    void callersJoiningAFlightAreToldTheyWereCoalesced() throws Exception {
+        ValidationCache cache = cache();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger joined = new AtomicInteger();
+        CompletableFuture<Map<String, Object>> leader = CompletableFuture.supplyAsync(
+                () -> cache.compute("plan", () -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Map.of("valid", true);
+                }, joined::incrementAndGet));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Map<String, Object>> follower = CompletableFuture.supplyAsync(
+                () -> cache.compute("plan", () -> Map.of("valid", false), () -> {
+                    joined.incrementAndGet();
+                    release.countDown();
+                }));
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(leader.get(5, TimeUnit.SECONDS));
+        assertThat(joined).hasValue(1);
+    }
+
+    private static ValidationCache cache() {
+        ValidationCache cache = new ValidationCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+}
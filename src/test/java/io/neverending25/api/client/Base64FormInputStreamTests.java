@@ -0,0 +1,86 @@
+package io.neverending25.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Base64FormInputStreamTests {
+    private static final int CHUNK = 3 * 1024;
+    private static final int[] SIZES = {0, 1, 2, 3, 4, CHUNK - 1, CHUNK, CHUNK + 1, CHUNK + 2, 2 * CHUNK,
+            2 * CHUNK + 1, 5 * CHUNK + 7};
+    private static final int[] READ_SIZES = {1, 2, 7, 4096, 64 * 1024};
+
+    @Test
+    void matchesUrlEncodedBase64AcrossChunkBoundaries() throws IOException {
+        Random random = new Random(42);
+        for (int size : SIZES) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            String expected = "file=" + URLEncoder.encode(Base64.getEncoder().encodeToString(data),
+                    StandardCharsets.UTF_8);
+
+            for (int readSize : READ_SIZES) {
+                assertThat(readAll(new Base64FormInputStream("file", new ByteArrayInputStream(data)), readSize))
+                        .as("%d bytes read %d at a time", size, readSize)
+                        .isEqualTo(expected);
+            }
+            assertThat(readAll(new Base64FormInputStream("file", trickle(data)), 4096))
+                    .as("%d bytes from a trickling source", size)
+                    .isEqualTo(expected);
+            assertThat(readSingleBytes(new Base64FormInputStream("file", new ByteArrayInputStream(data))))
+                    .as("%d bytes read one at a time", size)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void escapesEveryBase64SpecialCharacter() throws IOException {
+        byte[] data = {(byte) 0xfb, (byte) 0xff, (byte) 0xbf, 0x01};
+
+        String encoded = readAll(new Base64FormInputStream("image", new ByteArrayInputStream(data)), 1024);
+
+        assertThat(encoded).isEqualTo("image=%2B%2F%2B%2FAQ%3D%3D");
+    }
+
+    private static String readAll(InputStream in, int readSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[readSize];
+        try (in) {
+            int n;
+            while ((n = in.read(buffer, 0, readSize)) != -1) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static String readSingleBytes(InputStream in) throws IOException {
+        StringBuilder out = new StringBuilder();
+        try (in) {
+            int c;
+            while ((c = in.read()) != -1) {
+                out.append((char) c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static InputStream trickle(byte[] data) {
+        return new FilterInputStream(new ByteArrayInputStream(data)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 5));
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package io.neverending25.api.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FormatFallbackClientTests {
+    private final List<String> calls = new ArrayList<>();
+
+    interface Backend {
+        String get(String id);
+    }
+
+    @Test
+    void fallsBackToJsonOnceBinaryIsRejected() {
+        Backend client = FormatFallbackClient.wrap(Backend.class,
+                failing(new HttpClientErrorException(HttpStatus.UNSUPPORTED_MEDIA_TYPE)), json(), "plan", "cbor");
+
+        assertThat(client.get("a")).isEqualTo("json a");
+        assertThat(client.get("b")).isEqualTo("json b");
+        assertThat(calls).containsExactly("cbor a", "json a", "json b");
+    }
+
+    @Test
+    void fallsBackOnNotAcceptable() {
+        Backend client = FormatFallbackClient.wrap(Backend.class,
+                failing(new HttpClientErrorException(HttpStatus.NOT_ACCEPTABLE)), json(), "plan", "smile");
+
+        assertThat(client.get("a")).isEqualTo("json a");
+    }
+
+    @Test
+    void keepsBinaryAndRethrowsOtherClientErrors() {
+        HttpClientErrorException notFound = new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        Backend client = FormatFallbackClient.wrap(Backend.class, failing(notFound), json(), "plan", "cbor");
+
+        assertThatThrownBy(() -> client.get("a")).isSameAs(notFound);
+        assertThatThrownBy(() -> client.get("b")).isSameAs(notFound);
+        assertThat(calls).containsExactly("cbor a", "cbor b");
+    }
+
+    private Backend failing(RuntimeException failure) {
+        return id -> {
+            calls.add("cbor " + id);
+            throw failure;
+        };
+    }
+
+    private Backend json() {
+        return id -> {
+            calls.add("json " + id);
+            return "json " + id;
+        };
+    }
+}
@@ -0,0 +1,118 @@
+package io.neverending25.api.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilientClientTests {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile Duration delay = Duration.ZERO;
+    private volatile Duration firstDelay;
+
+    interface Backend {
+        String parse(String image);
+    }
+
+    private final Backend backend = image -> {
+        Duration sleep = calls.incrementAndGet() == 1 && firstDelay != null ? firstDelay : delay;
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return "parsed " + image;
+    };
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hedgesSlowCallAndRecordsTheLosingAttempt() {
+        firstDelay = Duration.ofSeconds(2);
+        Backend client = wrap(policy(Duration.ofSeconds(5), true, Duration.ofSeconds(30)));
+
+        assertThat(client.parse("a")).isEqualTo("parsed a");
+
+        assertThat(calls).hasValue(2);
+        assertThat(events("hedge_won")).isEqualTo(1);
+        assertThat(ReflectionTestUtils.getField(Proxy.getInvocationHandler(client), "latencyCount")).isEqualTo(2);
+    }
+
+    @Test
+    void requestBudgetTimeoutsDoNotOpenTheBreaker() throws Exception {
+        delay = Duration.ofMillis(200);
+        Backend client = wrap(policy(Duration.ofSeconds(5), false, Duration.ofSeconds(30)));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> Deadline.call(System.nanoTime() + Duration.ofMillis(20).toNanos(),
+                    () -> client.parse("a")))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+        }
+
+        delay = Duration.ZERO;
+        assertThat(client.parse("b")).isEqualTo("parsed b");
+        assertThat(events("deadline_exceeded")).isEqualTo(3);
+        assertThat(events("short_circuit")).isZero();
+    }
+
+    @Test
+    void clientTimeoutsOpenTheBreakerAndHalfOpenReleasesBudgetLimitedTrials() throws Exception {
+        delay = Duration.ofMillis(300);
+        Backend client = wrap(policy(Duration.ofMillis(30), false, Duration.ofMillis(100)));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.parse("a"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+        }
+        assertThatThrownBy(() -> client.parse("a"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        Thread.sleep(120);
+        assertThatThrownBy(() -> Deadline.call(System.nanoTime() + Duration.ofMillis(10).toNanos(),
+                () -> client.parse("a")))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+
+        delay = Duration.ZERO;
+        assertThat(client.parse("b")).isEqualTo("parsed b");
+        assertThat(meterRegistry.get("api.client.circuit.state").gauge().value())
+                .isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+    }
+
+    private Backend wrap(ClientPolicy policy) {
+        return ResilientClient.wrap(Backend.class, backend, "parser", policy, Set.of("parse"), executor,
+                meterRegistry);
+    }
+
+    private static ClientPolicy policy(Duration timeout, boolean hedge, Duration openDuration) {
+        return new ClientPolicy(Duration.ofSeconds(1), timeout, 10, hedge, 0.95, Duration.ofMillis(20), 1.0,
+                2, 0.5, openDuration);
+    }
+
+    private double events(String event) {
+        Counter counter = meterRegistry.find("api.client.events").tag("event", event).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
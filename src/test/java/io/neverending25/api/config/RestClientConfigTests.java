@@ -0,0 +1,78 @@
+package io.neverending25.api.config;
+
+import io.neverending25.api.client.PlanClient;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RestClientConfigTests {
+
+    @Test
+    void cborClientAcceptsCborAndReadsIt() {
+        RestClient.Builder builder = RestClientConfig.binaryFormat(RestClient.builder().baseUrl("http://plans"),
+                "cbor");
+        MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+        byte[] page = new CBORMapper().writeValueAsBytes(Map.of("content", List.of(Map.of("id", 7)), "last", true));
+        server.expect(requestTo("http://plans/plans?page=0&size=2"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.9"))
+                .andRespond(withSuccess(page, MediaType.APPLICATION_CBOR));
+
+        PageResponse<PlanResponse> response = client(builder).getPlans(0, 2);
+
+        assertThat(response.getContent()).extracting(PlanResponse::getId).containsExactly(7L);
+        assertThat(response.getLast()).isTrue();
+        server.verify();
+    }
+
+    @Test
+    void smileClientWritesSmileBodies() {
+        RestClient.Builder builder = RestClientConfig.binaryFormat(RestClient.builder().baseUrl("http://plans"),
+                "smile");
+        MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+        server.expect(requestTo("http://plans/plans"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"))
+                .andRespond(withSuccess("ok", MediaType.TEXT_PLAIN));
+
+        FloorPlan plan = new FloorPlan();
+        plan.setArea(12);
+        assertThat(client(builder).createPlan(plan)).isEqualTo("ok");
+        server.verify();
+    }
+
+    @Test
+    void jsonResponsesStillReadWhenBackendIgnoresAccept() {
+        RestClient.Builder builder = RestClientConfig.binaryFormat(RestClient.builder().baseUrl("http://plans"),
+                "smile");
+        MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+        server.expect(requestTo("http://plans/plans?page=1&size=2"))
+                .andRespond(withSuccess("{\"content\":[{\"id\":3}]}", MediaType.APPLICATION_JSON));
+
+        assertThat(client(builder).getPlans(1, 2).getContent()).extracting(PlanResponse::getId).containsExactly(3L);
+        server.verify();
+    }
+
+    private static PlanClient client(RestClient.Builder builder) {
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(builder.build())).build()
+                .createClient(PlanClient.class);
+    }
+}
@@ -0,0 +1,229 @@
+package io.neverending25.api.controller;
+
+import io.neverending25.api.cache.PlanPageCache;
+import io.neverending25.api.client.PlanClient;
+import io.neverending25.api.config.AsyncConfig;
+import io.neverending25.api.config.ServerTiming;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import io.neverending25.api.service.APIService;
+import io.neverending25.api.service.BatchValidationService;
+import io.neverending25.api.service.DeltaValidationService;
+import io.neverending25.api.service.PlanExportService;
+import io.neverending25.api.service.PlanService;
+import io.neverending25.api.service.PlanWriteBehind;
+import io.neverending25.api.service.StreamService;
+import io.neverending25.api.service.ValidationJobService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(APIController.class)
+@Import(AsyncConfig.class)
+class APIControllerTests {
+    private static final byte[] IMAGE = {(byte) 0x89, 'P', 'N', 'G', 0, 1, 2, (byte) 0xff};
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @MockitoBean
+    private APIService apiService;
+    @MockitoBean
+    private PlanService planService;
+    @MockitoBean
+    private PlanWriteBehind planWriteBehind;
+    @MockitoBean
+    private PlanExportService planExportService;
+    @MockitoBean
+    private DeltaValidationService deltaValidationService;
+    @MockitoBean
+    private StreamService streamService;
+    @MockitoBean
+    private ValidationJobService validationJobService;
+    @MockitoBean
+    private BatchValidationService batchValidationService;
+
+    @Test
+    void etagVariesOnlyForBinaryRepresentations() {
+        assertThat(etagFor("\"abc\"", null)).isEqualTo("\"abc\"");
+        assertThat(etagFor("\"abc\"", "application/json")).isEqualTo("\"abc\"");
+        assertThat(etagFor("\"abc\"", "*/*")).isEqualTo("\"abc\"");
+        assertThat(etagFor("\"abc\"", "application/cbor")).isEqualTo("\"abc-cbor\"");
+        assertThat(etagFor("\"abc\"", "application/x-jackson-smile, application/json;q=0.9"))
+                .isEqualTo("\"abc-smile\"");
+        assertThat(etagFor("\"abc\"", "text/html, application/cbor")).isEqualTo("\"abc-cbor\"");
+        assertThat(etagFor("\"abc\"", "not a media type")).isEqualTo("\"abc\"");
+    }
+
+    @Test
+    void cborParsePassesImageAsByteString() throws Exception {
+        assertParsesByteString(new CBORMapper(), MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void smileParsePassesImageAsByteString() throws Exception {
+        assertParsesByteString(new SmileMapper(), new MediaType("application", "x-jackson-smile"));
+    }
+
+    @Test
+    void multipartParseHandsTheUploadedFileToTheService() throws Exception {
+        List<byte[]> seen = new ArrayList<>();
+        when(apiService.parse(any(Path.class))).thenAnswer(invocation -> {
+            seen.add(Files.readAllBytes(invocation.<Path>getArgument(0)));
+            return new FloorPlan();
+        });
+
+        mockMvc.perform(multipart("/api/parse")
+                        .file(new MockMultipartFile("file", "plan.png", MediaType.IMAGE_PNG_VALUE, IMAGE)))
+                .andExpect(status().isOk());
+
+        assertThat(seen).containsExactly(IMAGE);
+    }
+
+    @Test
+    void batchStreamsNdjsonOnItsOwnTimeout() throws Exception {
+        when(batchValidationService.getTimeout()).thenReturn(Duration.ofMinutes(30));
+        when(batchValidationService.validate(any())).thenReturn(out -> out.write(
+                "{\"index\":0,\"result\":{}}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult pending = mockMvc.perform(post("/api/validate/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(pending.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"index\":0,\"result\":{}}\n"));
+    }
+
+    @Test
+    void plansAreRevalidatedWithEtagsUntilAWriteInvalidatesThePage() throws Exception {
+        PlanClient planClient = mock(PlanClient.class);
+        PlanPageCache pageCache = new PlanPageCache(new JsonMapper());
+        ReflectionTestUtils.setField(pageCache, "maxEntries", 10);
+        ReflectionTestUtils.setField(pageCache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.invokeMethod(pageCache, "init");
+        PlanService plans = new PlanService(planClient, pageCache);
+        when(planService.getPlans(anyInt(), anyInt())).thenAnswer(invocation -> plans.getPlans(
+                invocation.<Integer>getArgument(0), invocation.<Integer>getArgument(1)));
+        when(planClient.getPlans(0, 10)).thenReturn(page(1L), page(1L, 2L));
+
+        String etag = mockMvc.perform(get("/api/plans"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(containsString("\"id\":1")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/plans").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        plans.createPlans(List.of(new FloorPlan()), plan -> { });
+
+        String changed = mockMvc.perform(get("/api/plans").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"id\":2")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+        verify(planClient, times(2)).getPlans(0, 10);
+    }
+
+    @Test
+    void serverTimingIncludesStagesTimedOnWorkerThreads() throws Exception {
+        when(apiService.llm(any())).thenAnswer(invocation -> {
+            ServerTiming.record("enhance", 3_000_000);
+            virtualThreadExecutor.submit(ServerTiming.propagate(() -> ServerTiming.record("llm-eval", 5_000_000)))
+                    .get(5, TimeUnit.SECONDS);
+            return Map.of("response", "ok");
+        });
+
+        mockMvc.perform(post("/api/llm")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"prompt\": \"hi\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", "enhance;dur=3.0, llm-eval;dur=5.0"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertParsesByteString(ObjectMapper mapper, MediaType type) throws Exception {
+        FloorPlan parsed = new FloorPlan();
+        parsed.setWalls(new int[] {0, 0, 10, 0});
+        when(apiService.parse(any(Map.class))).thenReturn(parsed);
+
+        byte[] response = mockMvc.perform(post("/api/parse")
+                        .contentType(type)
+                        .accept(type)
+                        .content(mapper.writeValueAsBytes(Map.of("image", IMAGE))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(type))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ArgumentCaptor<Map<String, Object>> body = ArgumentCaptor.forClass(Map.class);
+        verify(apiService).parse(body.capture());
+        assertThat(body.getValue().get("image")).isEqualTo(IMAGE);
+        assertThat(mapper.readValue(response, FloorPlan.class).getWalls()).containsExactly(0, 0, 10, 0);
+    }
+
+    private static PageResponse<PlanResponse> page(Long... ids) {
+        List<PlanResponse> content = new ArrayList<>();
+        for (Long id : ids) {
+            PlanResponse plan = new PlanResponse();
+            plan.setId(id);
+            content.add(plan);
+        }
+        PageResponse<PlanResponse> page = new PageResponse<>();
+        page.setContent(content);
+        page.setTotalElements((long) ids.length);
+        return page;
+    }
+
+    private static String etagFor(String etag, String accept) {
+        return ReflectionTestUtils.invokeMethod(APIController.class, "etagFor", etag, accept);
+    }
+}
@@ -0,0 +1,83 @@
+package io.neverending25.api.dto;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.exc.MismatchedInputException;
+import tools.jackson.databind.exc.UnrecognizedPropertyException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FloorPlanJsonTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+
+    @Test
+    void roundTripsDemoPlan() throws IOException {
+        byte[] demo;
+        try (InputStream in = FloorPlanJsonTests.class.getResourceAsStream("/demo/mock-floorplan.json")) {
+            demo = in.readAllBytes();
+        }
+
+        FloorPlan plan = objectMapper.readValue(demo, FloorPlan.class);
+        String written = objectMapper.writeValueAsString(plan);
+
+        assertThat(plan.getWalls()).hasSize(42 * 4);
+        assertThat(plan.getDoors()).hasSize(9 * 8);
+        assertThat(plan.roomCount()).isEqualTo(18);
+        assertThat(objectMapper.readTree(written)).isEqualTo(objectMapper.readTree(demo));
+        assertThat(objectMapper.writeValueAsString(objectMapper.readValue(written, FloorPlan.class)))
+                .isEqualTo(written);
+    }
+
+    @Test
+    void roundTripsLoadBearingWallsAndSingleRoomObjects() {
+        FloorPlan plan = objectMapper.readValue("""
+                {"walls": [{"position": [[0, 0], [10.4, 0]]}],
+                 "rooms": [{"id": "1", "x": 2, "y": 3}],
+                 "load_bearing_walls": [{"position": [[0, 0], [10, 0]]}]}
+                """, FloorPlan.class);
+
+        assertThat(plan.getWalls()).containsExactly(0, 0, 10, 0);
+        assertThat(plan.getLoadBearingWalls()).containsExactly(0, 0, 10, 0);
+        assertThat(plan.getRoomIds()).containsExactly("1");
+        assertThat(Double.isNaN(plan.getArea())).isTrue();
+        JsonNode written = objectMapper.readTree(objectMapper.writeValueAsString(plan));
+        assertThat(written.has("area")).isFalse();
+        assertThat(written.get("rooms").get(0).get(0).get("x").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsMalformedPoints() {
+        assertRejected("{\"walls\": [{\"position\": [[0, 0]]}]}");
+        assertRejected("{\"walls\": [{\"position\": [[0, 0], [1, 1], [2, 2]]}]}");
+        assertRejected("{\"walls\": [{\"position\": [[0, 0], [1]]}]}");
+        assertRejected("{\"walls\": [{\"position\": [[0, 0], [1, 1, 1]]}]}");
+        assertRejected("{\"walls\": [{\"position\": [[0, 0], [null, 1]]}]}");
+        assertRejected("{\"walls\": [{\"position\": null}]}");
+        assertRejected("{\"doors\": [{\"box\": [[0, 0], [1, 0], [1, 1], [0, 1]]}]}");
+        assertRejected("{\"doors\": [{\"bbox\": [[0, 0], [1, 0], [1, 1]]}]}");
+    }
+
+    @Test
+    void unknownPropertiesFollowTheMapperConfiguration() {
+        String json = "{\"walls\": [{\"position\": [[0, 0], [1, 0]], \"thickness\": 3}], \"scale\": 2}";
+
+        assertThat(objectMapper.readValue(json, FloorPlan.class).getWalls()).containsExactly(0, 0, 1, 0);
+
+        JsonMapper strict = JsonMapper.builder().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+        assertThatThrownBy(() -> strict.readValue(json, FloorPlan.class))
+                .isInstanceOf(UnrecognizedPropertyException.class)
+                .hasMessageContaining("thickness");
+    }
+
+    private void assertRejected(String json) {
+        assertThatThrownBy(() -> objectMapper.readValue(json, FloorPlan.class))
+                .as(json)
+                .isInstanceOf(MismatchedInputException.class);
+    }
+}
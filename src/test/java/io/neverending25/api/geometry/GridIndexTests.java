@@ -0,0 +1,40 @@
+package io.neverending25.api.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridIndexTests {
+
+    @Test
+    void growsCellsToKeepHugeExtentsWithinTheCellBudget() {
+        GridIndex index = new GridIndex(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 64);
+        index.add(0, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        index.add(1, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        assertThat(index.extent()).isGreaterThanOrEqualTo(1L << 32);
+        assertThat(query(index, Integer.MIN_VALUE, Integer.MIN_VALUE, 0, 0)).containsExactly(0);
+        assertThat(query(index, Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE)).containsExactly(0, 1);
+    }
+
+    @Test
+    void handlesDegenerateExtents() {
+        GridIndex point = new GridIndex(5, 5, 5, 5, 64);
+        point.add(0, 5, 5, 5, 5);
+        GridIndex inverted = new GridIndex(10, 10, 0, 0, 0);
+        inverted.add(0, 0, 0, 10, 10);
+
+        assertThat(point.extent()).isEqualTo(64);
+        assertThat(query(point, -100, -100, 100, 100)).containsExactly(0);
+        assertThat(query(inverted, 3, 3, 3, 3)).containsExactly(0);
+    }
+
+    private static List<Integer> query(GridIndex index, long minX, long minY, long maxX, long maxY) {
+        List<Integer> found = new ArrayList<>();
+        index.query(minX, minY, maxX, maxY, found::add);
+        return found;
+    }
+}
@@ -0,0 +1,78 @@
+package io.neverending25.api.geometry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlanGeometryTests {
+
+    @Test
+    void addsDoorOnClosestWallForIsolatedRoom() {
+        int[] walls = {0, 0, 400, 0, 0, 0, 0, 300, 0, 300, 400, 300, 400, 0, 400, 300};
+        int[] doors = {10, 290, 35, 290, 35, 298, 10, 298};
+        int[] roomOffsets = {0, 1, 2};
+        int[] roomXs = {20, 300};
+        int[] roomYs = {280, 30};
+
+        PlanGeometry geometry = new PlanGeometry(walls, doors, roomOffsets, roomXs, roomYs);
+
+        assertThat(geometry.addMissingDoors()).containsExactly(288, -4, 313, -4, 313, 4, 288, 4);
+    }
+
+    @Test
+    void prefersLongExteriorWallsAsLoadBearing() {
+        int[] walls = {0, 0, 400, 0, 0, 0, 0, 300, 0, 300, 400, 300, 400, 0, 400, 300, 200, 0, 200, 40};
+
+        PlanGeometry geometry = new PlanGeometry(walls, new int[0], new int[] {0}, new int[0], new int[0]);
+
+        assertThat(geometry.loadBearingWalls()).containsExactly(0, 2, 1, 3);
+    }
+
+    @Test
+    void findsRoomsAroundChangedRegionAndChecksReachability() {
+        int[] walls = {0, 0, 400, 0, 0, 0, 0, 300, 0, 300, 400, 300, 400, 0, 400, 300};
+        int[] doors = {10, 290, 35, 290, 35, 298, 10, 298};
+        int[] roomOffsets = {0, 4, 8};
+        int[] roomXs = {0, 150, 150, 0, 250, 400, 400, 250};
+        int[] roomYs = {150, 150, 300, 300, 0, 0, 150, 150};
+
+        PlanGeometry geometry = new PlanGeometry(walls, doors, roomOffsets, roomXs, roomYs);
+
+        assertThat(geometry.roomsIntersecting(0, 280, 60, 320)).containsExactly(0);
+        assertThat(geometry.roomsIntersecting(300, 100, 350, 120)).containsExactly(1);
+        assertThat(geometry.isReachable(0)).isTrue();
+        assertThat(geometry.isReachable(1)).isFalse();
+    }
+
+    @Test
+    void findsDoorsForRoomsFarFromTheWallsOfAHugePlan() {
+        int max = PlanGeometry.MAX_COORDINATE;
+        int[] walls = {0, 0, max, max, -max, 0, -max, 10};
+        int[] roomOffsets = {0, 1, 2};
+        int[] roomXs = {max, -max + 5};
+        int[] roomYs = {0, 5};
+
+        PlanGeometry geometry = new PlanGeometry(walls, new int[0], roomOffsets, roomXs, roomYs);
+
+        assertThat(geometry.addMissingDoors()).hasSize(16);
+        assertThat(geometry.suggestDoor(1)).containsExactly(-max + 4, 0, -max + 4, 10, -max - 4, 10, -max - 4, 0);
+    }
+
+    @Test
+    void rejectsCoordinatesOutsideTheSupportedRange() {
+        int[] walls = {0, 0, 10_000_000, 10_000_000};
+
+        assertThatThrownBy(() -> new PlanGeometry(walls, new int[0], new int[] {0}, new int[0], new int[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void handlesPlansWithoutGeometry() {
+        PlanGeometry geometry = new PlanGeometry(new int[0], new int[0], new int[] {0, 1}, new int[] {7},
+                new int[] {7});
+
+        assertThat(geometry.addMissingDoors()).isEmpty();
+        assertThat(geometry.loadBearingWalls()).isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.config.ServerTiming;
+import io.neverending25.api.dto.FloorPlan;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchValidationServiceTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final APIService apiService = mock(APIService.class);
+    private BatchValidationService batchValidationService;
+
+    @BeforeEach
+    void setUp() {
+        batchValidationService = new BatchValidationService(apiService, objectMapper, executor);
+        ReflectionTestUtils.setField(batchValidationService, "parallelism", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void acceptsNdjsonAndArraysAlike() throws IOException {
+        when(apiService.validatePlanViaLlama(any())).thenAnswer(invocation -> {
+            ServerTiming.record("validate", 2_000_000);
+            return Map.of("length", invocation.<FloorPlan>getArgument(0).getWalls()[2]);
+        });
+
+        List<JsonNode> ndjson = run(plan(10) + "\n" + plan(20) + "\n" + plan(30) + "\n");
+        List<JsonNode> array = run("[" + plan(10) + ", " + plan(20) + ", " + plan(30) + "]");
+
+        assertThat(ndjson).isEqualTo(array);
+        assertThat(ndjson).extracting(line -> line.get("index").asInt()).containsExactly(0, 1, 2);
+        assertThat(ndjson).extracting(line -> line.get("result").get("length").asInt()).containsExactly(10, 20, 30);
+        assertThat(ndjson).extracting(line -> line.get("serverTiming").asString()).containsOnly("validate;dur=2.0");
+    }
+
+    @Test
+    void neverRunsMoreThanTheConfiguredParallelism() throws IOException {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(apiService.validatePlanViaLlama(any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return Map.of("valid", true);
+        });
+
+        StringBuilder plans = new StringBuilder();
+        for (int i = 1; i <= 8; i++) {
+            plans.append(plan(i)).append('\n');
+        }
+        List<JsonNode> lines = run(plans.toString());
+
+        assertThat(lines).hasSize(8);
+        assertThat(peak.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void reportsFailedPlansAsErrorRowsAndStopsAtMalformedInput() throws IOException {
+        when(apiService.validatePlanViaLlama(any())).thenAnswer(invocation -> {
+            if (invocation.<FloorPlan>getArgument(0).getWalls()[2] == 20) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "LLM unavailable");
+            }
+            return Map.of("valid", true);
+        });
+
+        List<JsonNode> lines = run(plan(10) + "\n" + plan(20) + "\n{\"walls\": 7}\n" + plan(40) + "\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0).get("result").get("valid").asBoolean()).isTrue();
+        assertThat(lines.get(1).get("error").asString()).contains("LLM unavailable");
+        assertThat(lines.get(2).get("index").asInt()).isEqualTo(2);
+        assertThat(lines.get(2).get("error").asString()).startsWith("Malformed plan");
+    }
+
+    private List<JsonNode> run(String plans) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchValidationService.validate(new ByteArrayInputStream(plans.getBytes(StandardCharsets.UTF_8)))
+                .writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).lines()
+                .map(objectMapper::readTree)
+                .sorted(Comparator.comparingInt(line -> line.get("index").asInt()))
+                .toList();
+    }
+
+    private static String plan(int length) {
+        return "{\"walls\": [{\"position\": [[0, 0], [" + length + ", 0]]}]}";
+    }
+}
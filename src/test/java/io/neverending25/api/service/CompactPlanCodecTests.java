@@ -0,0 +1,102 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactPlanCodecTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+    private final CompactPlanCodec codec = new CompactPlanCodec(objectMapper);
+
+    @Test
+    void encodesSharedVerticesDoorCornersAndRooms() {
+        FloorPlan plan = plan();
+        plan.setArea(120000.4);
+        plan.setPerimeter(1400.6);
+        plan.setLoadBearingWalls(new int[] {400, 0, 400, 300});
+
+        assertThat(codec.encode(plan)).isEqualTo("{\"v\":[[0,0],[400,0],[400,300]],"
+                + "\"w\":[[0,1],[1,2]],"
+                + "\"d\":[[10,290,35,298]],"
+                + "\"r\":[[\"A\",0,150,150,150],[\"B\",250,0]],"
+                + "\"a\":120000,\"p\":1401,\"lb\":[1]}");
+    }
+
+    @Test
+    void decodesNewDoorsInEveryShapeAndValidLoadBearingIndices() {
+        Map<String, Object> output = Map.of(
+                "doors", List.of(
+                        List.of(100, 0, 125, 8),
+                        List.of(List.of(200, 0), List.of(225, 0), List.of(225, 8), List.of(200, 8)),
+                        Map.of("bbox", List.of(List.of(300, 0), List.of(325, 8))),
+                        List.of(1, 2)),
+                "load_bearing_walls", List.of(1, Map.of("wall", 0), 7, "x"));
+
+        FloorPlan enhanced = codec.decodeEnhancement(plan(), output);
+
+        assertThat(enhanced.getDoors()).containsExactly(
+                10, 290, 35, 290, 35, 298, 10, 298,
+                100, 0, 125, 0, 125, 8, 100, 8,
+                200, 0, 225, 0, 225, 8, 200, 8,
+                300, 0, 325, 0, 325, 8, 300, 8);
+        assertThat(enhanced.getLoadBearingWalls()).containsExactly(400, 0, 400, 300, 0, 0, 400, 0);
+        assertThat(enhanced.getWalls()).isEqualTo(plan().getWalls());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolvesWallIndicesAnywhereInValidation() {
+        Map<String, Object> suggestion = new LinkedHashMap<>();
+        suggestion.put("description", "Remove wall 1");
+        suggestion.put("move_door", null);
+        suggestion.put("remove_wall", Map.of("wall", 1));
+        Map<String, Object> validation = Map.of(
+                "valid", false,
+                "issues", List.of(Map.of("description", "Wall 0 too thin", "location", Map.of("wall", 0))),
+                "suggestions", List.of(suggestion,
+                        Map.of("remove_wall", Map.of("wall", 9)),
+                        Map.of("remove_wall", Map.of("wall", 1, "position", List.of(List.of(1, 1), List.of(2, 2))))));
+
+        Map<String, Object> decoded = codec.decodeValidation(plan(), validation);
+
+        assertThat(decoded).containsEntry("valid", false);
+        assertThat(decoded.get("issues")).isEqualTo(List.of(Map.of("description", "Wall 0 too thin",
+                "location", Map.of("position", List.of(List.of(0, 0), List.of(400, 0))))));
+        List<Map<String, Object>> suggestions = (List<Map<String, Object>>) decoded.get("suggestions");
+        assertThat(suggestions.get(0))
+                .containsEntry("description", "Remove wall 1")
+                .containsEntry("move_door", null)
+                .containsEntry("remove_wall", Map.of("position", List.of(List.of(400, 0), List.of(400, 300))));
+        assertThat(suggestions.get(1).get("remove_wall")).isEqualTo(Map.of("wall", 9));
+        assertThat(suggestions.get(2).get("remove_wall"))
+                .isEqualTo(Map.of("wall", 1, "position", List.of(List.of(1, 1), List.of(2, 2))));
+    }
+
+    @Test
+    void compactValidationPromptPointsAtTheRoomTable() {
+        assertThat(LlmPrompts.VALIDATE_COMPACT_SYSTEM)
+                .contains("- Check each room in \"r\"")
+                .contains("\"r\": rooms")
+                .doesNotContain("rooms array");
+        assertThat(LlmPrompts.VALIDATE_SYSTEM)
+                .contains("- Check each room in rooms array")
+                .doesNotContain("PLAN ENCODING");
+    }
+
+    private static FloorPlan plan() {
+        FloorPlan plan = new FloorPlan();
+        plan.setWalls(new int[] {0, 0, 400, 0, 400, 0, 400, 300});
+        plan.setDoors(new int[] {10, 290, 35, 290, 35, 298, 10, 298});
+        plan.setRoomOffsets(new int[] {0, 3, 4});
+        plan.setRoomXs(new int[] {0, 0, 150, 250});
+        plan.setRoomYs(new int[] {150, 150, 150, 0});
+        plan.setRoomIds(new String[] {"A", "A", "A", "B"});
+        return plan;
+    }
+}
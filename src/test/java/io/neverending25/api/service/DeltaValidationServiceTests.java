@@ -0,0 +1,165 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.neverending25.api.cache.PlanCanonicalizer;
+import io.neverending25.api.cache.ValidationStore;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.PlanDelta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeltaValidationServiceTests {
+    private static final Map<String, Object> ROOM_A_GOOD = item("Room A has a door", List.of(
+            List.of(0, 150), List.of(150, 300)));
+    private static final Map<String, Object> ROOM_B_ISOLATED = item("Room B is isolated", List.of(
+            List.of(250, 0), List.of(400, 150)));
+    private static final Map<String, Object> ROOM_B_NO_EXIT = item("Room B has no fire exit", List.of(
+            List.of(250, 0), List.of(400, 150)));
+    private static final Map<String, Object> FAR_ISSUE = item("Window too small", List.of(
+            List.of(1000, 1000), List.of(1010, 1010)));
+
+    private final BlockingQueue<FloorPlan> persisted = new LinkedBlockingQueue<>();
+    private ValidationStore validationStore;
+    private APIService apiService;
+    private DeltaValidationService deltaValidationService;
+
+    @BeforeEach
+    void setUp() {
+        validationStore = new ValidationStore();
+        ReflectionTestUtils.setField(validationStore, "maxEntries", 10);
+        ReflectionTestUtils.setField(validationStore, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.invokeMethod(validationStore, "init");
+
+        JsonMapper objectMapper = new JsonMapper();
+        PlanWriteBehind planWriteBehind = new PlanWriteBehind(null, objectMapper);
+        ReflectionTestUtils.setField(planWriteBehind, "queue", persisted);
+        StageTimer stageTimer = new StageTimer(new SimpleMeterRegistry());
+        apiService = new APIService(null, objectMapper, planWriteBehind, null, null, null, null,
+                new PlanCanonicalizer(), null, validationStore, null, null, stageTimer);
+        ReflectionTestUtils.setField(apiService, "promptFingerprint", "test");
+
+        deltaValidationService = new DeltaValidationService(apiService, validationStore, planWriteBehind,
+                stageTimer);
+    }
+
+    @Test
+    void addingDoorRevalidatesDoorAccessButKeepsOtherTouchedFindingsUnverified() {
+        validationStore.put("previous", plan(), result(List.of(ROOM_B_ISOLATED, ROOM_B_NO_EXIT)));
+        PlanDelta delta = new PlanDelta();
+        delta.setAddedDoors(List.<int[][]>of(new int[][] {{380, 0}, {400, 0}, {400, 8}, {380, 8}}));
+
+        Map<String, Object> result = deltaValidationService.validate("previous", delta);
+
+        assertThat(result)
+                .containsEntry("valid", false)
+                .containsEntry("partial", true)
+                .containsEntry("revalidated_rooms", List.of("B"))
+                .containsEntry("unverified_issues", List.of(ROOM_B_ISOLATED, ROOM_B_NO_EXIT));
+        assertThat((List<?>) result.get("issues")).isEmpty();
+        assertThat((List<?>) result.get("good")).hasSize(2).first().isEqualTo(ROOM_A_GOOD);
+        assertThat(persisted).isEmpty();
+        FloorPlan patched = validationStore.get(result.get("validation_id").toString()).plan();
+        assertThat(patched.getDoors()).hasSize(16);
+        assertThat(result.get("validation_id")).isNotEqualTo(apiService.validationId(patched));
+    }
+
+    @Test
+    void geometricFindingsAreRecheckedByLaterDeltas() {
+        validationStore.put("previous", plan(), result(List.of()));
+        PlanDelta removeDoor = new PlanDelta();
+        removeDoor.setRemovedDoors(List.<int[][]>of(new int[][] {{10, 290}, {35, 290}, {35, 298}, {10, 298}}));
+
+        Map<String, Object> removed = deltaValidationService.validate("previous", removeDoor);
+
+        assertThat(removed).containsEntry("valid", false).containsEntry("unverified_issues", List.of());
+        assertThat((List<?>) removed.get("issues")).hasSize(1);
+
+        PlanDelta restoreDoor = new PlanDelta();
+        restoreDoor.setAddedDoors(removeDoor.getRemovedDoors());
+        Map<String, Object> restored = deltaValidationService.validate(removed.get("validation_id").toString(),
+                restoreDoor);
+
+        assertThat(restored).containsEntry("valid", true).containsEntry("unverified_issues", List.of());
+        assertThat((List<?>) restored.get("issues")).isEmpty();
+        assertThat(persisted).hasSize(1);
+    }
+
+    @Test
+    void treatsNullListsAsEmpty() {
+        PlanDelta delta = new JsonMapper().readValue("""
+                {"addedWalls": null, "removedWalls": null, "movedWalls": null,
+                 "addedDoors": null, "removedDoors": null, "movedDoors": null}
+                """, PlanDelta.class);
+        validationStore.put("previous", plan(), result(List.of(FAR_ISSUE)));
+
+        Map<String, Object> result = deltaValidationService.validate("previous", delta);
+
+        assertThat(result).containsEntry("valid", false).containsEntry("issues", List.of(FAR_ISSUE));
+    }
+
+    @Test
+    void reusesIssuesOutsideTheChangedRegion() {
+        validationStore.put("previous", plan(), result(List.of(FAR_ISSUE, ROOM_B_ISOLATED)));
+        PlanDelta delta = new PlanDelta();
+        delta.setAddedDoors(List.<int[][]>of(new int[][] {{380, 0}, {400, 0}, {400, 8}, {380, 8}}));
+
+        Map<String, Object> result = deltaValidationService.validate("previous", delta);
+
+        assertThat(result).containsEntry("valid", false).containsEntry("issues", List.of(FAR_ISSUE))
+                .containsEntry("unverified_issues", List.of(ROOM_B_ISOLATED));
+        assertThat(persisted).isEmpty();
+    }
+
+    @Test
+    void removesWallsByExactCoordinatesInEitherDirection() {
+        FloorPlan plan = plan();
+        plan.setWalls(new int[] {500, 500, 600, 600, 500, 600, 600, 500});
+        validationStore.put("previous", plan, result(List.of()));
+
+        PlanDelta sameBounds = new PlanDelta();
+        sameBounds.setRemovedWalls(List.<int[][]>of(new int[][] {{500, 500}, {600, 599}}));
+        assertThatThrownBy(() -> deltaValidationService.validate("previous", sameBounds))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+
+        PlanDelta reversed = new PlanDelta();
+        reversed.setRemovedWalls(List.<int[][]>of(new int[][] {{600, 500}, {500, 600}}));
+        Map<String, Object> result = deltaValidationService.validate("previous", reversed);
+
+        assertThat(validationStore.get(result.get("validation_id").toString()).plan().getWalls())
+                .containsExactly(500, 500, 600, 600);
+    }
+
+    private static FloorPlan plan() {
+        FloorPlan plan = new FloorPlan();
+        plan.setWalls(new int[] {0, 0, 400, 0, 0, 0, 0, 300, 0, 300, 400, 300, 400, 0, 400, 300});
+        plan.setDoors(new int[] {10, 290, 35, 290, 35, 298, 10, 298});
+        plan.setRoomOffsets(new int[] {0, 4, 8});
+        plan.setRoomXs(new int[] {0, 150, 150, 0, 250, 400, 400, 250});
+        plan.setRoomYs(new int[] {150, 150, 300, 300, 0, 0, 150, 150});
+        plan.setRoomIds(new String[] {"A", null, null, null, "B", null, null, null});
+        return plan;
+    }
+
+    private static Map<String, Object> result(List<Object> issues) {
+        return Map.of("valid", issues.isEmpty(), "issues", issues, "good", List.of(ROOM_A_GOOD),
+                "suggestions", List.of());
+    }
+
+    private static Map<String, Object> item(String description, Object location) {
+        return Map.of("description", description, "location", location);
+    }
+}
@@ -0,0 +1,128 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImagePreprocessorTests {
+
+    @Test
+    void downscalesToGrayscaleAndReportsScaleFactors() throws IOException {
+        ImagePreprocessor preprocessor = preprocessor(1000);
+
+        ImagePreprocessor.Prepared prepared = preprocessor.prepare(png(floorPlan(4000, 2000, 0)));
+
+        assertThat(prepared.bytes()).isNotNull();
+        assertThat(prepared.width()).isEqualTo(1000);
+        assertThat(prepared.height()).isEqualTo(500);
+        assertThat(prepared.scaleX()).isEqualTo(4.0);
+        assertThat(prepared.scaleY()).isEqualTo(4.0);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(prepared.bytes()));
+        assertThat(decoded.getWidth()).isEqualTo(1000);
+        assertThat(decoded.getRaster().getNumBands()).isEqualTo(1);
+    }
+
+    @Test
+    void hashesRescaledCopiesCloseAndDifferentPlansFar() throws IOException {
+        ImagePreprocessor preprocessor = preprocessor(1000);
+
+        long original = preprocessor.prepare(png(floorPlan(2400, 1600, 0))).hash();
+        long smaller = preprocessor.prepare(png(floorPlan(600, 400, 0))).hash();
+        long other = preprocessor.prepare(png(floorPlan(2400, 1600, 1))).hash();
+
+        assertThat(Long.bitCount(original ^ smaller)).isLessThanOrEqualTo(4);
+        assertThat(Long.bitCount(original ^ other)).isGreaterThan(4);
+    }
+
+    @Test
+    void appliesExifOrientationBeforeScaling() throws IOException {
+        ImagePreprocessor preprocessor = preprocessor(100);
+        BufferedImage stored = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = stored.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 400, 200);
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, 200, 200);
+        g.dispose();
+
+        ImagePreprocessor.Prepared prepared = preprocessor.prepare(withOrientation(jpeg(stored), 6));
+
+        assertThat(prepared.originalWidth()).isEqualTo(200);
+        assertThat(prepared.originalHeight()).isEqualTo(400);
+        assertThat(prepared.width()).isEqualTo(50);
+        assertThat(prepared.height()).isEqualTo(100);
+        BufferedImage upright = ImageIO.read(new ByteArrayInputStream(prepared.bytes()));
+        assertThat(upright.getRaster().getSample(25, 20, 0)).isLessThan(64);
+        assertThat(upright.getRaster().getSample(25, 80, 0)).isGreaterThan(192);
+    }
+
+    private static ImagePreprocessor preprocessor(int maxDimension) {
+        ImagePreprocessor preprocessor = new ImagePreprocessor(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(preprocessor, "enabled", true);
+        ReflectionTestUtils.setField(preprocessor, "maxDimension", maxDimension);
+        ReflectionTestUtils.setField(preprocessor, "format", "png");
+        ReflectionTestUtils.setField(preprocessor, "jpegQuality", 0.85f);
+        return preprocessor;
+    }
+
+    private static BufferedImage floorPlan(int width, int height, int variant) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(30, 30, 90));
+        int wall = Math.max(2, width / 100);
+        if (variant == 0) {
+            g.fillRect(0, 0, width / 3, height / 2);
+            g.fillRect(width / 2, height / 4, wall, height / 2);
+            g.fillRect(width * 3 / 4, height * 2 / 3, width / 4, height / 3);
+        } else {
+            g.fillRect(width * 2 / 3, 0, width / 3, height / 2);
+            g.fillRect(0, height / 2, width / 4, height / 2);
+            g.fillRect(width / 3, height / 3, width / 4, wall);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] exif = {
+                'E', 'x', 'i', 'f', 0, 0,
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0,
+                0, 0, 0, 0};
+        int app0End = 4 + ((jpeg[4] & 0xff) << 8 | jpeg[5] & 0xff);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, app0End);
+        out.write(0xff);
+        out.write(0xe1);
+        out.write((exif.length + 2) >> 8);
+        out.write((exif.length + 2) & 0xff);
+        out.write(exif, 0, exif.length);
+        out.write(jpeg, app0End, jpeg.length - app0End);
+        return out.toByteArray();
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
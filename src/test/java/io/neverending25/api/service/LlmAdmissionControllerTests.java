@@ -0,0 +1,126 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LlmAdmissionControllerTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LlmAdmissionController admission;
+
+    @BeforeEach
+    void setUp() {
+        LlmNodePool nodePool = mock(LlmNodePool.class);
+        when(nodePool.availableCount()).thenReturn(1);
+        admission = new LlmAdmissionController(nodePool, meterRegistry);
+        ReflectionTestUtils.setField(admission, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(admission, "maxQueue", 2);
+        ReflectionTestUtils.setField(admission, "maxWait", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(admission, "retryAfter", Duration.ofSeconds(7));
+        ReflectionTestUtils.invokeMethod(admission, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void interactiveCallersAreAdmittedBeforeQueuedBatchCallers() throws Exception {
+        Future<?> holder = occupySlot();
+        List<LlmPriority> order = new CopyOnWriteArrayList<>();
+        Future<?> batch = executor.submit(() -> admission.call(LlmPriority.BATCH, () -> order.add(LlmPriority.BATCH)));
+        awaitQueueDepth(1);
+        Future<?> interactive = executor.submit(
+                () -> admission.call(LlmPriority.INTERACTIVE, () -> order.add(LlmPriority.INTERACTIVE)));
+        awaitQueueDepth(2);
+        assertThat(meterRegistry.get("llm.admission.queue.depth").gauge().value()).isEqualTo(2);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        batch.get(5, TimeUnit.SECONDS);
+        interactive.get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly(LlmPriority.INTERACTIVE, LlmPriority.BATCH);
+        assertThat(meterRegistry.get("llm.admission.wait").tag("priority", "BATCH").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("llm.admission.wait").tag("priority", "INTERACTIVE").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() throws Exception {
+        ReflectionTestUtils.setField(admission, "maxQueue", 1);
+        occupySlot();
+        executor.submit(() -> admission.call(LlmPriority.BATCH, () -> null));
+        awaitQueueDepth(1);
+
+        assertThatThrownBy(() -> admission.call(LlmPriority.INTERACTIVE, () -> null))
+                .isInstanceOfSatisfying(LlmOverloadedException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+                });
+        assertThat(meterRegistry.get("llm.admission.rejected").tag("reason", "queue-full").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void waitersGiveUpAfterMaxWait() throws Exception {
+        ReflectionTestUtils.setField(admission, "maxWait", Duration.ofMillis(50));
+        occupySlot();
+
+        assertThatThrownBy(() -> admission.call(LlmPriority.INTERACTIVE, () -> null))
+                .isInstanceOfSatisfying(LlmOverloadedException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getReason()).startsWith("Timed out");
+                });
+        assertThat(admission.queueDepth()).isZero();
+        assertThat(meterRegistry.get("llm.admission.in.flight").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("llm.admission.rejected").tag("reason", "timeout").counter().count())
+                .isEqualTo(1);
+    }
+
+    private Future<?> occupySlot() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> admission.call(LlmPriority.INTERACTIVE, () -> {
+            entered.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        return holder;
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.queueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(admission.queueDepth()).isEqualTo(depth);
+    }
+}
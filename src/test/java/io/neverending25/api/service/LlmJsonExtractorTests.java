@@ -0,0 +1,93 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmJsonExtractorTests {
+
+    @Test
+    void stripsProseAndStopsAtFirstCompleteObject() {
+        LlmJsonExtractor extractor = new LlmJsonExtractor();
+        for (String token : List.of("Sure! Here ", "is the result: {\"valid\": ", "true, \"issues\": [", "]}", " Done {x}")) {
+            extractor.accept(token);
+            if (extractor.isComplete()) {
+                break;
+            }
+        }
+
+        assertThat(extractor.isComplete()).isTrue();
+        assertThat(extractor.json()).isEqualTo("{\"valid\": true, \"issues\": []}");
+        assertThat(extractor.isRepaired()).isFalse();
+    }
+
+    @Test
+    void repairsTrailingCommasAndMismatchedClosers() {
+        assertThat(LlmJsonExtractor.extract("{\"a\": [1, 2,], \"b\": {\"c\": 1,},}"))
+                .isEqualTo("{\"a\": [1, 2], \"b\": {\"c\": 1}}");
+        assertThat(LlmJsonExtractor.extract("{\"a\": [1, 2}"))
+                .isEqualTo("{\"a\": [1, 2]}");
+    }
+
+    @Test
+    void closesTruncatedOutput() {
+        assertThat(LlmJsonExtractor.extract("{\"issues\": [{\"description\": \"Room 5 is iso"))
+                .isEqualTo("{\"issues\": [{\"description\": \"Room 5 is iso\"}]}");
+        assertThat(LlmJsonExtractor.extract("{\"valid\": tr")).isEqualTo("{\"valid\":null}");
+        assertThat(LlmJsonExtractor.extract("{\"good\": [], \"sugg")).isEqualTo("{\"good\": []}");
+        assertThat(LlmJsonExtractor.extract("{\"good\": [], \"suggestions\"")).isEqualTo("{\"good\": []}");
+        assertThat(LlmJsonExtractor.extract("{\"area\": 12.")).isEqualTo("{\"area\": 12}");
+    }
+
+    @Test
+    void escapesRawNewlinesInsideStrings() {
+        assertThat(LlmJsonExtractor.extract("{\"d\": \"line one\nline two\"}"))
+                .isEqualTo("{\"d\": \"line one\\nline two\"}");
+    }
+
+    @Test
+    void fillsValidationSchemaDefaults() {
+        Map<String, Object> result = LlmJsonExtractor.validation(Map.of(
+                "valid", "false",
+                "issues", "Room 3 has no door"));
+
+        assertThat(result).containsEntry("valid", false)
+                .containsEntry("good", List.of())
+                .containsEntry("suggestions", List.of());
+        assertThat((List<?>) result.get("issues")).singleElement()
+                .asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("description", "Room 3 has no door")
+                .containsEntry("location", null);
+    }
+
+    @Test
+    void keepsInputGeometryAndDropsUnknownEnhancements() {
+        FloorPlan input = new FloorPlan();
+        input.setWalls(new int[] {0, 0, 200, 0, 200, 0, 200, 100});
+        input.setDoors(new int[] {10, 0, 30, 0, 30, 6, 10, 6});
+        input.setArea(20000);
+
+        FloorPlan output = new FloorPlan();
+        output.setWalls(new int[] {0, 0, 1, 1});
+        output.setDoors(new int[] {
+                10, 0, 30, 0, 30, 6, 10, 6,
+                200, 40, 206, 40, 206, 65, 200, 65,
+                50, 50, 50, 50, 50, 50, 50, 50});
+        output.setLoadBearingWalls(new int[] {200, 100, 200, 0, 5, 5, 9, 9});
+        output.setArea(1);
+
+        FloorPlan checked = LlmJsonExtractor.enhancement(input, output);
+
+        assertThat(checked.getWalls()).isEqualTo(input.getWalls());
+        assertThat(checked.getArea()).isEqualTo(20000);
+        assertThat(checked.getDoors()).containsExactly(
+                10, 0, 30, 0, 30, 6, 10, 6,
+                200, 40, 206, 40, 206, 65, 200, 65);
+        assertThat(checked.getLoadBearingWalls()).containsExactly(200, 0, 200, 100);
+    }
+}
@@ -0,0 +1,130 @@
+package io.neverending25.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmNodePoolTests {
+    private static final List<String> URLS = List.of("http://node-a:11434", "http://node-b:11434");
+
+    private final CloseableHttpClient httpClient = HttpClients.createDefault();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LlmNodePool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new LlmNodePool(httpClient, new SimpleMeterRegistry(), events::add);
+        ReflectionTestUtils.setField(pool, "urls", URLS);
+        ReflectionTestUtils.setField(pool, "model", "llama3");
+        ReflectionTestUtils.setField(pool, "healthTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(pool, "maxFailures", 2);
+        ReflectionTestUtils.setField(pool, "maxImbalance", 1);
+        ReflectionTestUtils.invokeMethod(pool, "start");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        release.countDown();
+        executor.shutdownNow();
+        httpClient.close();
+    }
+
+    @Test
+    void concurrentCallersAreSpreadAcrossNodes() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(4);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> {
+                start.await();
+                return pool.call((String) null, hold(entered));
+            });
+        }
+        start.countDown();
+        entered.await();
+
+        assertThat(outstanding()).containsExactly(2, 2);
+    }
+
+    @Test
+    void affinityStaysOnOneNodeUntilItIsTooBusy() throws InterruptedException {
+        String preferred = pool.call("plan-1", LlmNodePool.Node::url);
+        assertThat(pool.call("plan-1", LlmNodePool.Node::url)).isEqualTo(preferred);
+
+        CountDownLatch entered = new CountDownLatch(2);
+        LlmNodePool.Node node = pool.availableNodes().get(URLS.indexOf(preferred));
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> pool.call(node, hold(entered)));
+        }
+        entered.await();
+
+        assertThat(pool.call("plan-1", LlmNodePool.Node::url)).isNotEqualTo(preferred);
+    }
+
+    @Test
+    void ejectsNodeOnlyAfterConsecutiveIoOrServerErrors() {
+        LlmNodePool.Node node = pool.availableNodes().getFirst();
+        for (int i = 0; i < 3; i++) {
+            fail(node, new ResponseStatusException(HttpStatus.BAD_GATEWAY, "model not found"));
+        }
+        assertThat(pool.availableCount()).isEqualTo(2);
+
+        fail(node, new ResourceAccessException("connection refused"));
+        fail(node, new ResponseStatusException(HttpStatus.BAD_GATEWAY, "LLM backend returned 503",
+                new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)));
+
+        assertThat(pool.availableCount()).isEqualTo(1);
+        assertThat(events).containsExactly(new LlmNodePool.NodesChanged(1));
+        assertThat(pool.call((String) null, LlmNodePool.Node::url)).isEqualTo(URLS.get(1));
+    }
+
+    private void fail(LlmNodePool.Node node, RuntimeException failure) {
+        assertThatThrownBy(() -> pool.call(node, n -> {
+            throw failure;
+        })).isSameAs(failure);
+    }
+
+    private Function<LlmNodePool.Node, String> hold(CountDownLatch entered) {
+        return node -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return node.url();
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> outstanding() {
+        List<Integer> outstanding = new ArrayList<>();
+        for (Map<String, Object> node : (List<Map<String, Object>>) pool.stats().get("nodes")) {
+            outstanding.add((Integer) node.get("outstanding"));
+        }
+        return outstanding;
+    }
+}
@@ -0,0 +1,74 @@
+package io.neverending25.api.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class LlmServiceTests {
+
+    @Test
+    void stopsReadingAnyBodyOnceTheJsonIsComplete() {
+        EndlessGeneration body = new EndlessGeneration();
+        RestClient restClient = RestClient.builder()
+                .baseUrl("http://llm")
+                .requestFactory((uri, method) -> {
+                    MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+                    request.setResponse(new MockClientHttpResponse(body, HttpStatus.OK));
+                    return request;
+                })
+                .build();
+        LlmService llmService = new LlmService(null, new JsonMapper(), null, null);
+        List<String> tokens = new ArrayList<>();
+        Consumer<String> onToken = tokens::add;
+        BooleanSupplier complete = () -> String.join("", tokens).endsWith("}");
+
+        Map<String, Object> result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> ReflectionTestUtils.invokeMethod(llmService, "streamAdmitted", restClient, Map.of(), onToken,
+                        complete));
+
+        assertThat(result)
+                .containsEntry("response", "{\"valid\": true}")
+                .containsEntry("done_reason", "stopped_early")
+                .containsEntry("eval_count", 2);
+        assertThat(body.closed).isTrue();
+    }
+
+    private static final class EndlessGeneration extends InputStream {
+        private static final byte[] FIRST = "{\"response\":\"{\\\"valid\\\": \"}\n{\"response\":\"true}\"}\n"
+                .getBytes(StandardCharsets.UTF_8);
+        private static final byte[] FILLER = "{\"response\":\" \"}\n".getBytes(StandardCharsets.UTF_8);
+
+        private long position;
+        private volatile boolean closed;
+
+        @Override
+        public int read() {
+            if (closed) {
+                return -1;
+            }
+            long at = position++;
+            return at < FIRST.length ? FIRST[(int) at] : FILLER[(int) ((at - FIRST.length) % FILLER.length)];
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
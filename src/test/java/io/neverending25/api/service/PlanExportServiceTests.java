@@ -0,0 +1,109 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.client.PlanClient;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanExportServiceTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Integer> requested = new CopyOnWriteArrayList<>();
+    private IntFunction<List<Long>> pages;
+    private PlanExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        PlanClient planClient = new PlanClient() {
+            @Override
+            public PageResponse<PlanResponse> getPlans(Integer page, Integer size) {
+                requested.add(page);
+                PageResponse<PlanResponse> response = new PageResponse<>();
+                List<PlanResponse> content = new ArrayList<>();
+                for (Long id : pages.apply(page)) {
+                    PlanResponse plan = new PlanResponse();
+                    plan.setId(id);
+                    content.add(plan);
+                }
+                response.setContent(content);
+                return response;
+            }
+
+            @Override
+            public PageResponse<PlanResponse> getPlansAfter(String cursor, Integer size) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String createPlan(FloorPlan plan) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String createPlans(List<FloorPlan> plans) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        exportService = new PlanExportService(planClient, objectMapper, executor);
+        ReflectionTestUtils.setField(exportService, "pageSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void advancesByRequestedPageWhenBackendOmitsPageMetadata() throws IOException {
+        pages = page -> page < 2 ? List.of(page * 2L + 1, page * 2L + 2) : List.of();
+
+        assertThat(export()).hasSize(4);
+        assertThat(requested).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void stopsWhenBackendRepeatsThePreviousPage() throws IOException {
+        pages = page -> List.of(1L, 2L);
+
+        assertThat(export()).hasSize(2);
+        assertThat(requested).containsExactly(0, 1);
+    }
+
+    @Test
+    void emitsPlansOnceEvenWhenTheyShiftByMoreThanAPage() throws IOException {
+        pages = page -> switch (page) {
+            case 0 -> List.of(1L, 2L);
+            case 1 -> List.of(9L, 1L);
+            case 2 -> List.of(2L, 3L);
+            case 3 -> List.of(4L);
+            default -> List.of();
+        };
+
+        assertThat(export()).extracting(line -> objectMapper.readTree(line).get("id").asLong())
+                .containsExactly(1L, 2L, 9L, 3L, 4L);
+        assertThat(requested).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    private List<String> export() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
@@ -0,0 +1,117 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.cache.PlanPageCache;
+import io.neverending25.api.client.PlanClient;
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.PageResponse;
+import io.neverending25.api.dto.PlanResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanWriteBehindTests {
+    private final JsonMapper objectMapper = new JsonMapper();
+    private final List<Double> created = new ArrayList<>();
+    private int failAfter = Integer.MAX_VALUE;
+
+    @TempDir
+    Path dir;
+
+    private Path spoolFile;
+    private PlanWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        PlanClient planClient = new PlanClient() {
+            @Override
+            public PageResponse<PlanResponse> getPlans(Integer page, Integer size) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public PageResponse<PlanResponse> getPlansAfter(String cursor, Integer size) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String createPlan(FloorPlan plan) {
+                if (created.size() >= failAfter) {
+                    throw new IllegalStateException("plan service down");
+                }
+                created.add(plan.getArea());
+                return "ok";
+            }
+
+            @Override
+            public String createPlans(List<FloorPlan> plans) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        PlanPageCache pageCache = new PlanPageCache(objectMapper);
+        ReflectionTestUtils.setField(pageCache, "maxEntries", 10);
+        ReflectionTestUtils.setField(pageCache, "ttl", Duration.ofSeconds(5));
+        ReflectionTestUtils.invokeMethod(pageCache, "init");
+        PlanService planService = new PlanService(planClient, pageCache);
+
+        spoolFile = dir.resolve("plan-spool.ndjson");
+        writeBehind = new PlanWriteBehind(planService, objectMapper);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 2);
+        ReflectionTestUtils.setField(writeBehind, "spoolFile", spoolFile);
+        ReflectionTestUtils.setField(writeBehind, "queue", new LinkedBlockingQueue<FloorPlan>());
+    }
+
+    @Test
+    void spoolsOnlyPlansThatWereNotWritten() throws IOException {
+        failAfter = 1;
+        ReflectionTestUtils.invokeMethod(writeBehind, "flush", new ArrayList<>(List.of(plan(1), plan(2), plan(3))));
+
+        assertThat(created).containsExactly(1.0);
+        assertThat(Files.readAllLines(spoolFile)).hasSize(2);
+
+        failAfter = Integer.MAX_VALUE;
+        ReflectionTestUtils.invokeMethod(writeBehind, "replay");
+
+        assertThat(created).containsExactly(1.0, 2.0, 3.0);
+        assertThat(spoolFile).doesNotExist();
+    }
+
+    @Test
+    void quarantinesCorruptLinesAndResumesFromCheckpoint() throws IOException {
+        Files.writeString(spoolFile, line(1) + "{\"walls\": [\n" + line(2) + line(3) + line(4) + "{\"area\": 5, \"wal");
+
+        failAfter = 2;
+        ReflectionTestUtils.invokeMethod(writeBehind, "replay");
+        assertThat(created).containsExactly(1.0, 2.0);
+
+        failAfter = Integer.MAX_VALUE;
+        ReflectionTestUtils.invokeMethod(writeBehind, "replay");
+
+        assertThat(created).containsExactly(1.0, 2.0, 3.0, 4.0);
+        assertThat(Files.readAllLines(dir.resolve("plan-spool.ndjson.rejected"))).hasSize(2);
+        assertThat(dir.resolve("plan-spool.ndjson.replaying")).doesNotExist();
+        assertThat(dir.resolve("plan-spool.ndjson.offset")).doesNotExist();
+        assertThat(writeBehind.stats()).containsEntry("replayed", 4L).containsEntry("rejected", 2L);
+    }
+
+    private static FloorPlan plan(double area) {
+        FloorPlan plan = new FloorPlan();
+        plan.setArea(area);
+        return plan;
+    }
+
+    private String line(double area) {
+        return objectMapper.writeValueAsString(plan(area)) + "\n";
+    }
+}
@@ -0,0 +1,164 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.config.ServerTiming;
+import io.neverending25.api.dto.FloorPlan;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class StreamServiceTests {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final APIService apiService = mock(APIService.class);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private StreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        streamService = new StreamService(apiService, executor);
+        ReflectionTestUtils.setField(streamService, "timeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void streamsStagesAndTokensThenTimingAndResult() throws Exception {
+        when(apiService.validatePlanViaLlama(any(), any())).thenAnswer(invocation -> {
+            LlmProgressListener listener = invocation.getArgument(1);
+            started.await(5, TimeUnit.SECONDS);
+            listener.stage("enhance");
+            listener.token("{\"valid\":");
+            listener.token("true}");
+            ServerTiming.record("validate", 2_000_000);
+            return Map.of("valid", true);
+        });
+
+        String body = perform(MockMvcBuilders.standaloneSetup(new StreamEndpoint(streamService)).build());
+
+        assertThat(events(body)).containsExactly("stage", "token", "token", "timing", "result");
+        assertThat(body).contains("data:{\"stage\":\"enhance\"}")
+                .contains("data:{\"response\":\"true}\"}")
+                .contains("data:{\"serverTiming\":\"validate;dur=2.0\"}")
+                .contains("data:{\"valid\":true}");
+    }
+
+    @Test
+    void clientDisconnectCancelsTheLlmCall() throws Exception {
+        AtomicInteger tokens = new AtomicInteger();
+        CompletableFuture<Throwable> cancelled = new CompletableFuture<>();
+        when(apiService.validatePlanViaLlama(any(), any())).thenAnswer(invocation -> {
+            LlmProgressListener listener = invocation.getArgument(1);
+            started.await(5, TimeUnit.SECONDS);
+            try {
+                for (int i = 0; i < 100; i++) {
+                    listener.token("t" + i);
+                    tokens.incrementAndGet();
+                }
+            } catch (CancellationException e) {
+                cancelled.complete(e);
+                throw e;
+            }
+            return Map.of("valid", true);
+        });
+        Filter disconnected = (request, response, chain) -> chain.doFilter(request,
+                new HttpServletResponseWrapper((HttpServletResponse) response) {
+                    @Override
+                    public ServletOutputStream getOutputStream() {
+                        return new DisconnectedOutputStream();
+                    }
+                });
+
+        perform(MockMvcBuilders.standaloneSetup(new StreamEndpoint(streamService)).addFilters(disconnected).build());
+
+        assertThat(cancelled.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IOException.class);
+        assertThat(tokens).hasValue(0);
+    }
+
+    private String perform(MockMvc mockMvc) throws Exception {
+        MvcResult pending = mockMvc.perform(post("/validate/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.countDown();
+        pending.getAsyncResult(5_000);
+        return pending.getResponse().getContentAsString();
+    }
+
+    private static List<String> events(String body) {
+        return body.lines()
+                .filter(line -> line.startsWith("event:"))
+                .map(line -> line.substring("event:".length()))
+                .toList();
+    }
+
+    @RestController
+    static class StreamEndpoint {
+        private final StreamService streamService;
+
+        StreamEndpoint(StreamService streamService) {
+            this.streamService = streamService;
+        }
+
+        @PostMapping("/validate/stream")
+        SseEmitter validate(@RequestBody FloorPlan plan) {
+            return streamService.validate(plan);
+        }
+    }
+
+    private static class DisconnectedOutputStream extends ServletOutputStream {
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+    }
+}
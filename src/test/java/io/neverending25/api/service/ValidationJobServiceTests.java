@@ -0,0 +1,39 @@
+package io.neverending25.api.service;
+
+import io.neverending25.api.dto.FloorPlan;
+import io.neverending25.api.dto.ValidationJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ValidationJobServiceTests {
+
+    @Test
+    void submitReturnsThePendingStateEvenIfTheJobFinishesFirst() {
+        APIService apiService = mock(APIService.class);
+        when(apiService.validatePlanViaLlama(any())).thenReturn(Map.of("valid", true));
+        ExecutorService inline = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(inline).execute(any());
+        ValidationJobService service = new ValidationJobService(apiService, inline);
+        ReflectionTestUtils.setField(service, "maxEntries", 10);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofMinutes(1));
+
+        ValidationJob submitted = service.submit(new FloorPlan());
+
+        assertThat(submitted.getStatus()).isEqualTo(ValidationJob.Status.PENDING);
+        assertThat(submitted.getResult()).isNull();
+        assertThat(service.get(submitted.getId()).getStatus()).isEqualTo(ValidationJob.Status.DONE);
+    }
+}